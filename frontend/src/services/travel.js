@@ -1,12 +1,13 @@
 import api from './api.js';
 
 export const travelService = {
-  async getTrips(query = null, page = 0, size = 10) {
+  async getTrips(query = null, page = 0, size = 10, cursor = null) {
     try {
       const params = new URLSearchParams();
       if (query) params.append('query', query);
       if (page !== 0) params.append('page', page);
       if (size !== 10) params.append('size', size);
+      if (cursor) params.append('cursor', cursor);
       
       const queryString = params.toString();
       const url = queryString ? `/trips?${queryString}` : '/trips';
@@ -27,15 +28,47 @@ export const travelService = {
     }
   },
 
-  async searchTrips(query) {
+  // One page of search results, best match first; response.hasMore tells if another page exists
+  async searchTrips(query, page = 0, size = 10) {
     try {
-      const response = await api.get(`/trips?query=${encodeURIComponent(query)}`);
+      const params = new URLSearchParams({ query });
+      if (page !== 0) params.append('page', page);
+      if (size !== 10) params.append('size', size);
+
+      const response = await api.get(`/trips?${params.toString()}`);
       return response.data;
     } catch (error) {
       throw error.response?.data || { error: 'Failed to search trips' };
     }
   },
 
+  // Trips near a point, closest first; each trip carries distanceKm.
+  // Without radiusKm the nearest trips are returned however far away they are.
+  async getNearbyTrips(lat, lng, radiusKm = null, limit = 10) {
+    try {
+      const params = new URLSearchParams({ lat, lng });
+      if (radiusKm) params.append('radiusKm', radiusKm);
+      if (limit !== 10) params.append('limit', limit);
+
+      const response = await api.get(`/trips/nearby?${params.toString()}`);
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to fetch nearby trips' };
+    }
+  },
+
+  // Map markers for the visible area: { clusters: [{ latitude, longitude, count, tripId }] }.
+  // bounds are the map's edges; west > east when the view crosses the antimeridian.
+  async getTripClusters({ south, west, north, east }, zoom) {
+    try {
+      const params = new URLSearchParams({ south, west, north, east, zoom: Math.round(zoom) });
+      const response = await api.get(`/trips/clusters?${params.toString()}`);
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to fetch map clusters' };
+    }
+  },
+
   async getMyTrips() {
     try {
       const response = await api.get('/trips/mine');
@@ -45,6 +78,29 @@ export const travelService = {
     }
   },
 
+  // Whole catalog as NDJSON (one trip per line), for download
+  async exportTrips() {
+    try {
+      const response = await api.get('/trips/export', { responseType: 'blob' });
+      return response.data;
+    } catch (error) {
+      throw { error: 'Failed to export trips' };
+    }
+  },
+
+  // Import an NDJSON file (e.g. from exportTrips); resolves to { imported, skipped, errors }
+  async importTrips(file) {
+    try {
+      const response = await api.post('/trips/import', file, {
+        headers: { 'Content-Type': 'application/x-ndjson' },
+        timeout: 0
+      });
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to import trips' };
+    }
+  },
+
   async createTrip(tripData) {
     try {
       const response = await api.post('/trips', tripData);
@@ -54,6 +110,16 @@ export const travelService = {
     }
   },
 
+  // Create up to 1000 trips in one request; resolves to { ids } in input order
+  async createTrips(trips) {
+    try {
+      const response = await api.post('/trips/batch', trips);
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to create trips' };
+    }
+  },
+
   async updateTrip(id, tripData) {
     try {
       const response = await api.put(`/trips/${id}`, tripData);
@@ -96,5 +162,120 @@ export const travelService = {
     } catch (error) {
       throw error.response?.data || { error: 'Failed to update trip with files' };
     }
+  },
+
+  async signPhotoUploads(files) {
+    try {
+      const response = await api.post('/trips/uploads/sign', { files });
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to prepare photo uploads' };
+    }
+  },
+
+  async confirmPhotoUploads(id, tickets) {
+    try {
+      const response = await api.post(`/trips/${id}/photos/confirm`, { tickets });
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to add photos' };
+    }
+  },
+
+  // Upload photos straight to storage and attach them to a trip; the API only sees metadata
+  async uploadPhotosDirect(id, files) {
+    const specs = await Promise.all(files.map(async (file) => ({
+      fileName: file.name,
+      contentType: file.type,
+      size: file.size,
+      sha256: await sha256Hex(file)
+    })));
+
+    const { uploads } = await this.signPhotoUploads(specs);
+    await Promise.all(uploads.map(async (prepared) => {
+      if (prepared.alreadyStored) return;
+      const response = await fetch(prepared.upload.url, {
+        method: prepared.upload.method,
+        headers: prepared.upload.headers,
+        body: files[prepared.index]
+      });
+      if (!response.ok) {
+        throw { error: `Failed to upload ${files[prepared.index].name}` };
+      }
+    }));
+
+    return this.confirmPhotoUploads(id, uploads.map((prepared) => prepared.ticket));
+  },
+
+  // Upload one photo in chunks; after a dropped connection only the missing bytes are sent.
+  // Resolves to the upload ticket to pass to confirmPhotoUploads.
+  async uploadPhotoResumable(file, onProgress = () => {}) {
+    const key = `resumable-upload:${file.name}:${file.size}:${file.lastModified}`;
+    let location = localStorage.getItem(key);
+    let offset = 0;
+
+    if (location) {
+      try {
+        const head = await api.head(location, { headers: { 'Tus-Resumable': '1.0.0' } });
+        offset = Number(head.headers['upload-offset']);
+        if (offset === file.size && head.headers['upload-ticket']) {
+          localStorage.removeItem(key);
+          return head.headers['upload-ticket'];
+        }
+      } catch (error) {
+        location = null;
+      }
+    }
+
+    if (!location) {
+      const metadata = `filename ${utf8ToBase64(file.name)},filetype ${btoa(file.type)}`;
+      const created = await api.post('/trips/uploads/resumable', null, {
+        headers: { 'Tus-Resumable': '1.0.0', 'Upload-Length': file.size, 'Upload-Metadata': metadata }
+      });
+      location = `/trips/uploads/resumable/${created.data.id}`;
+      localStorage.setItem(key, location);
+    }
+
+    let attempts = 0;
+    while (true) {
+      try {
+        const response = await api.patch(location, file.slice(offset, offset + RESUMABLE_CHUNK_SIZE), {
+          headers: {
+            'Tus-Resumable': '1.0.0',
+            'Upload-Offset': offset,
+            'Content-Type': 'application/offset+octet-stream'
+          },
+          timeout: 0
+        });
+        offset = response.data.offset;
+        attempts = 0;
+        onProgress(offset / file.size);
+        if (response.data.complete) {
+          localStorage.removeItem(key);
+          return response.data.ticket;
+        }
+      } catch (error) {
+        if (++attempts > 5) {
+          throw error.response?.data || { error: `Failed to upload ${file.name}` };
+        }
+        await new Promise((resolve) => setTimeout(resolve, 1000 * 2 ** attempts));
+        // Ask the server how far it got before sending the next chunk
+        const head = await api.head(location, { headers: { 'Tus-Resumable': '1.0.0' } });
+        offset = Number(head.headers['upload-offset']);
+      }
+    }
   }
-};
\ No newline at end of file
+};
+
+const RESUMABLE_CHUNK_SIZE = 2 * 1024 * 1024;
+
+function utf8ToBase64(text) {
+  return btoa(String.fromCharCode(...new TextEncoder().encode(text)));
+}
+
+// Lets the server skip uploads of photos it already has
+async function sha256Hex(file) {
+  if (!window.crypto?.subtle) return null;
+  const digest = await window.crypto.subtle.digest('SHA-256', await file.arrayBuffer());
+  return Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, '0')).join('');
+}
@@ -0,0 +1,53 @@
+// Compares thread-pool mode with virtual-thread mode (VIRTUAL_THREADS=true).
+// Run once per mode against the same database and storage:
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=jwt-token-1-0 loadtest/threads.js
+// See loadtest/README.md for how to read the results.
+import http from 'k6/http';
+import { check } from 'k6';
+import crypto from 'k6/crypto';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TOKEN = __ENV.TOKEN || 'jwt-token-1-0';
+const VUS = Number(__ENV.VUS || 400);
+const DURATION = __ENV.DURATION || '60s';
+const PHOTO_BYTES = Number(__ENV.PHOTO_BYTES || 100000);
+
+export const options = {
+  scenarios: {
+    feed: {
+      executor: 'constant-vus',
+      exec: 'feed',
+      vus: VUS,
+      duration: DURATION
+    },
+    upload: {
+      executor: 'constant-vus',
+      exec: 'upload',
+      vus: VUS,
+      duration: DURATION,
+      // Run after the feed scenario so the two do not share the CPU
+      startTime: DURATION
+    }
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max']
+};
+
+export function feed() {
+  const response = http.get(`${BASE_URL}/api/trips?size=12`, { tags: { endpoint: 'feed' } });
+  check(response, { 'feed 200': (r) => r.status === 200 });
+}
+
+export function upload() {
+  // Random bytes, so content-addressed storage cannot skip the upload
+  const photo = crypto.randomBytes(PHOTO_BYTES);
+  const response = http.post(`${BASE_URL}/api/trips/upload`, {
+    title: `Load test ${__VU}-${__ITER}`,
+    description: 'Load test trip',
+    photos: http.file(photo, `load-${__VU}-${__ITER}.jpg`, 'image/jpeg')
+  }, {
+    headers: { Authorization: `Bearer ${TOKEN}` },
+    tags: { endpoint: 'upload' },
+    timeout: '120s'
+  });
+  check(response, { 'upload 200': (r) => r.status === 200 });
+}
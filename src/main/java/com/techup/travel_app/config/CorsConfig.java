@@ -28,6 +28,14 @@ public class CorsConfig {
         // Allow all headers
         configuration.addAllowedHeader("*");
         
+        // Let the browser read the resumable upload headers
+        configuration.addExposedHeader("Location");
+        configuration.addExposedHeader("Tus-Resumable");
+        configuration.addExposedHeader("Upload-Offset");
+        configuration.addExposedHeader("Upload-Length");
+        configuration.addExposedHeader("Upload-Expires");
+        configuration.addExposedHeader("Upload-Ticket");
+        
         // Allow credentials (important for JWT tokens)
         configuration.setAllowCredentials(true);
         
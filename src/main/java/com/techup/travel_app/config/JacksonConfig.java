@@ -0,0 +1,18 @@
+package com.techup.travel_app.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Blackbird replaces reflective getter/constructor calls with generated lambdas,
+    // which speeds up serializing the DTO records. Spring Boot registers Module beans
+    // with the auto-configured ObjectMapper.
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
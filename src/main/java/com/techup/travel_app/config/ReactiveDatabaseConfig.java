@@ -0,0 +1,150 @@
+package com.techup.travel_app.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking connection pool for the reactive read API. It points at the same
+ * Postgres database as the JDBC datasource; by default the URL is derived from
+ * spring.datasource.url, so deployments need no extra settings.
+ *
+ * The pool is deliberately not a bean: Boot skips the JDBC DataSource when a
+ * ConnectionFactory bean exists, which would take JPA down with it. Boot's own
+ * R2DBC auto-configuration is excluded in application.properties for the same reason.
+ */
+@Configuration
+@Conditional(ReactiveDatabaseConfig.Enabled.class)
+public class ReactiveDatabaseConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveDatabaseConfig.class);
+
+    @Value("${trip.reactive.r2dbc-url:}")
+    private String r2dbcUrl;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${trip.reactive.pool.max-size:10}")
+    private int maxSize;
+
+    @Value("${trip.reactive.pool.max-idle-time:30m}")
+    private Duration maxIdleTime;
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        connectionPool = createPool();
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * On unless trip.reactive.enabled=false. Without trip.reactive.r2dbc-url the URL
+     * is derived from spring.datasource.url, which only works for Postgres; with any
+     * other database the reactive API is left out (with a warning) and the rest of
+     * the app starts as usual. Every bean of the reactive API uses this condition.
+     */
+    public static class Enabled extends SpringBootCondition {
+
+        private static final AtomicBoolean warned = new AtomicBoolean();
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment environment = context.getEnvironment();
+            if (!environment.getProperty("trip.reactive.enabled", Boolean.class, true)) {
+                return ConditionOutcome.noMatch("trip.reactive.enabled is false");
+            }
+            if (!environment.getProperty("trip.reactive.r2dbc-url", "").isBlank()) {
+                return ConditionOutcome.match("trip.reactive.r2dbc-url is set");
+            }
+            if (environment.getProperty("spring.datasource.url", "").startsWith("jdbc:postgresql:")) {
+                return ConditionOutcome.match("R2DBC URL derived from spring.datasource.url");
+            }
+            if (warned.compareAndSet(false, true)) {
+                log.warn("Reactive API (/api/reactive) disabled: spring.datasource.url is not a PostgreSQL URL; "
+                        + "set trip.reactive.r2dbc-url to enable it");
+            }
+            return ConditionOutcome.noMatch("spring.datasource.url is not a PostgreSQL URL");
+        }
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    private ConnectionPool createPool() {
+        String url = r2dbcUrl.isBlank() ? fromJdbcUrl(jdbcUrl) : r2dbcUrl;
+        String user = username;
+        String pass = password;
+
+        // R2DBC wants credentials as options, JDBC URLs often carry them in the query string
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            StringBuilder rest = new StringBuilder();
+            for (String param : url.substring(query + 1).split("&")) {
+                if (param.startsWith("user=")) {
+                    if (user.isBlank()) user = URLDecoder.decode(param.substring(5), StandardCharsets.UTF_8);
+                } else if (param.startsWith("password=")) {
+                    if (pass.isBlank()) pass = URLDecoder.decode(param.substring(9), StandardCharsets.UTF_8);
+                } else if (!param.isEmpty()) {
+                    rest.append(rest.length() == 0 ? "?" : "&").append(param);
+                }
+            }
+            url = url.substring(0, query) + rest;
+        }
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!user.isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, user);
+        }
+        if (!pass.isBlank()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, pass);
+        }
+        ConnectionFactory postgres = ConnectionFactories.get(options.build());
+
+        // Connections are opened on first use, so startup does not wait for the database
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(postgres)
+                .name("trips-reactive")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    // Helper method to turn "jdbc:postgresql://host/db?sslmode=require" into the R2DBC form
+    // (Enabled only lets Postgres URLs through)
+    private String fromJdbcUrl(String url) {
+        return url.replaceFirst("^jdbc:", "r2dbc:")
+                .replaceAll("([?&])sslmode=", "$1sslMode=");
+    }
+}
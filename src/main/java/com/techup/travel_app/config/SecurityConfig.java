@@ -1,5 +1,6 @@
 package com.techup.travel_app.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,8 +17,13 @@ public class SecurityConfig {
 
     private final CorsConfigurationSource corsConfigurationSource;
 
-    public SecurityConfig(CorsConfigurationSource corsConfigurationSource) {
+    // Actuator's own port (MANAGEMENT_SERVER_PORT); -1 when actuator shares the public port
+    private final int managementPort;
+
+    public SecurityConfig(CorsConfigurationSource corsConfigurationSource,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.corsConfigurationSource = corsConfigurationSource;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -39,15 +45,18 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 
                 // Allow unauthenticated access to public API endpoints
-                .requestMatchers("/api/trips/**", "/api/search/**").permitAll()
+                .requestMatchers("/api/trips/**", "/api/search/**", "/api/files/**", "/api/reactive/**").permitAll()
                 
                 // Allow access to static resources and frontend
                 .requestMatchers("/", "/index.html", "/static/**", 
                                 "/js/**", "/css/**", "/assets/**").permitAll()
                 
-                // Allow health check endpoints
+                // Allow health check endpoint
                 .requestMatchers("/actuator/health").permitAll()
                 
+                // Metrics only on the separate management port, which is kept off the public network
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
+                
                 // All other requests require authentication
                 .anyRequest().authenticated()
             );
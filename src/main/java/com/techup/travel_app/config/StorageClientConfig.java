@@ -0,0 +1,54 @@
+package com.techup.travel_app.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "supabase", matchIfMissing = true)
+public class StorageClientConfig {
+
+    // Dedicated keep-alive pool for storage calls, so uploads never queue behind
+    // (or starve) other outbound traffic and idle connections are recycled
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider storageConnectionProvider(
+            @Value("${storage.http.max-connections:50}") int maxConnections,
+            @Value("${storage.http.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout) {
+        return ConnectionProvider.builder("storage")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .maxLifeTime(Duration.ofMinutes(5))
+                .evictInBackground(Duration.ofSeconds(60))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient storageWebClient(
+            ConnectionProvider storageConnectionProvider,
+            @Value("${storage.http.connect-timeout:3s}") Duration connectTimeout,
+            @Value("${storage.http.response-timeout:30s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(storageConnectionProvider)
+                // HTTP/2 is negotiated via ALPN on https endpoints, HTTP/1.1 keep-alive otherwise
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .keepAlive(true)
+                // Time allowed between sending the request and the response arriving
+                .responseTimeout(responseTimeout)
+                // One tag value for every object path keeps the metric cardinality bounded
+                .metrics(true, uri -> "/storage/v1/object");
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -1,12 +1,16 @@
 package com.techup.travel_app.controller;
 
+import com.techup.travel_app.dto.UserProfile;
 import com.techup.travel_app.entity.User;
 import com.techup.travel_app.repository.UserRepository;
+import com.techup.travel_app.service.FeedSnapshotService;
+import com.techup.travel_app.service.TripCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -20,6 +24,15 @@ public class AuthController {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private TripCacheService tripCacheService;
+    
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+    
+    // Fixed sign-up date reported for the demo user
+    private static final LocalDateTime DEMO_CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> credentials) {
@@ -136,7 +149,7 @@ public class AuthController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(
+    public ResponseEntity<?> getCurrentUser(
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -155,12 +168,13 @@ public class AuthController {
                 if (userId != null) {
                     // Handle demo user case
                     if (token.startsWith("demo-jwt-token-") && userId == 1L) {
+                        // Demo stubs keep their own keys; UserProfile would add null name and profileImage
                         Map<String, Object> user = new HashMap<>();
                         user.put("id", 1L);
                         user.put("email", "demo@example.com");
                         user.put("displayName", "Demo User");
                         user.put("role", "USER");
-                        user.put("createdAt", "2024-01-01T00:00:00");
+                        user.put("createdAt", DEMO_CREATED_AT);
                         user.put("totalTrips", 5);
                         return ResponseEntity.ok(user);
                     }
@@ -169,20 +183,10 @@ public class AuthController {
                     Optional<User> userOpt = userRepository.findById(userId);
                     if (userOpt.isPresent()) {
                         User user = userOpt.get();
-                        Map<String, Object> userInfo = new HashMap<>();
-                        userInfo.put("id", user.getId());
-                        userInfo.put("email", user.getEmail());
-                        userInfo.put("name", user.getName());
-                        userInfo.put("displayName", user.getDisplayName());
-                        userInfo.put("profileImage", user.getProfileImage());
-                        userInfo.put("role", "USER");
-                        userInfo.put("createdAt", user.getCreatedAt());
                         
                         // Get trip count for this user (assuming we have trips)
                         // For now, set to 0, can be enhanced later
-                        userInfo.put("totalTrips", 0);
-                        
-                        return ResponseEntity.ok(userInfo);
+                        return ResponseEntity.ok(UserProfile.withRole(user, 0));
                     }
                 }
             }
@@ -240,7 +244,7 @@ public class AuthController {
     }
     
     @PutMapping("/me")
-    public ResponseEntity<Map<String, Object>> updateProfile(
+    public ResponseEntity<?> updateProfile(
             @RequestBody Map<String, String> updates,
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
         
@@ -259,11 +263,12 @@ public class AuthController {
                 // Handle demo user case
                 if (token.startsWith("demo-jwt-token-") && userId == 1L) {
                     // For demo user, just return updated profile (can't persist)
+                    // Demo stub: the keys it has always sent (no displayName)
                     Map<String, Object> userProfile = new HashMap<>();
                     userProfile.put("id", 1L);
                     userProfile.put("email", "demo@example.com");
                     userProfile.put("name", updates.getOrDefault("name", "Demo User"));
-                    userProfile.put("createdAt", "2024-01-01T00:00:00");
+                    userProfile.put("createdAt", DEMO_CREATED_AT);
                     userProfile.put("profileImage", updates.getOrDefault("profileImage", ""));
                     return ResponseEntity.ok(userProfile);
                 }
@@ -296,15 +301,11 @@ public class AuthController {
                     
                     User updatedUser = userRepository.save(user);
                     
-                    Map<String, Object> userProfile = new HashMap<>();
-                    userProfile.put("id", updatedUser.getId());
-                    userProfile.put("name", updatedUser.getName());
-                    userProfile.put("displayName", updatedUser.getDisplayName());
-                    userProfile.put("email", updatedUser.getEmail());
-                    userProfile.put("createdAt", updatedUser.getCreatedAt());
-                    userProfile.put("profileImage", updatedUser.getProfileImage());
+                    // Cached trip payloads embed the author's display name and email
+                    tripCacheService.evictAll();
+                    feedSnapshotService.invalidate();
                     
-                    return ResponseEntity.ok(userProfile);
+                    return ResponseEntity.ok(UserProfile.of(updatedUser));
                 }
             }
             
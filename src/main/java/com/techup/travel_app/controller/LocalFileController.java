@@ -0,0 +1,185 @@
+package com.techup.travel_app.controller;
+
+import com.techup.travel_app.service.LocalDiskPhotoStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves photos stored by LocalDiskPhotoStorage, with single-range requests
+ * and zero-copy transfer: Tomcat's sendfile when the connector supports it,
+ * otherwise FileChannel.transferTo into the response. Also accepts uploads on
+ * the URLs LocalDiskPhotoStorage signs for direct uploads.
+ */
+@RestController
+@RequestMapping("/api/files")
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalFileController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private LocalDiskPhotoStorage storage;
+
+    // Get a stored file (also answers HEAD)
+    @GetMapping("/{name}")
+    public void getFile(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = storage.find(name);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Objects are content-addressed, so a name always has the same bytes
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + name + "\"")) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Multi-range (multipart/byteranges) is not supported; the full file is a valid answer
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range starts after the end of the file");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file from the page cache straight to the socket after we return
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    // Signed direct upload: local stand-in for the storage service's signed upload URLs
+    @PutMapping("/upload/{name}")
+    public ResponseEntity<Map<String, Object>> uploadFile(
+            @PathVariable String name,
+            @RequestParam long expires,
+            @RequestParam long maxBytes,
+            @RequestParam String signature,
+            HttpServletRequest request) {
+        if (!storage.verifySignedUpload(name, expires, maxBytes, signature)) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid or expired upload URL");
+            return ResponseEntity.status(403).body(errorResponse);
+        }
+        if (request.getContentLengthLong() > maxBytes) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "File is too large");
+            return ResponseEntity.status(413).body(errorResponse);
+        }
+
+        try (InputStream in = new SizeLimitedInputStream(request.getInputStream(), maxBytes)) {
+            String url = storage.store(name, in);
+            Map<String, Object> response = new HashMap<>();
+            response.put("key", name);
+            response.put("url", url);
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to store file");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(e instanceof UploadTooLargeException ? 413 : 500).body(errorResponse);
+        }
+    }
+
+    private static class UploadTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UploadTooLargeException() {
+            super("File is too large");
+        }
+    }
+
+    // Stops chunked bodies that have no Content-Length at the signed size limit
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1 && --remaining < 0) throw new UploadTooLargeException();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                remaining -= read;
+                if (remaining < 0) throw new UploadTooLargeException();
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.techup.travel_app.controller;
+
+import com.techup.travel_app.config.ReactiveDatabaseConfig;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
+import com.techup.travel_app.service.ReactiveTripReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the trip read endpoints, backed by R2DBC. Same
+ * parameters and payloads as TravelController, under /api/reactive. The request
+ * thread is released as soon as the query is sent; responses are written when
+ * the rows arrive.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@Conditional(ReactiveDatabaseConfig.Enabled.class)
+public class ReactiveTripController {
+
+    // Upper bound on page size so popular queries cannot return the whole catalog
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Most trips one anonymous stream may pull; the whole catalog is the logged-in export
+    @Value("${trip.reactive.stream-max-trips:1000}")
+    private int streamMaxTrips;
+
+    @Autowired
+    private ReactiveTripReadService reactiveTripReadService;
+
+    @GetMapping("/trips")
+    public Mono<ResponseEntity<Map<String, Object>>> getAllTrips(
+            @RequestParam(value = "query", required = false) String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Mono<Map<String, Object>> body;
+        if (query != null && !query.trim().isEmpty()) {
+            // Same UTF-8 handling for Thai text as the blocking endpoint
+            body = Mono.fromCallable(() -> URLDecoder.decode(query.trim(), StandardCharsets.UTF_8))
+                    .flatMap(decodedQuery -> reactiveTripReadService.search(decodedQuery, Math.max(page, 0), pageSize))
+                    .map(results -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("trips", results.trips());
+                        response.put("total", results.total());
+                        response.put("totalEstimated", false);
+                        response.put("hasMore", results.hasMore());
+                        response.put("nextCursor", null);
+                        return response;
+                    });
+        } else {
+            // Keyset feed only; OFFSET paging stays on the blocking endpoint for old clients
+            body = reactiveTripReadService.getFeed(cursor, pageSize)
+                    .map(feed -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("trips", feed.trips());
+                        response.put("total", feed.total());
+                        response.put("totalEstimated", feed.totalEstimated());
+                        response.put("hasMore", feed.nextCursor() != null);
+                        response.put("nextCursor", feed.nextCursor());
+                        return response;
+                    });
+        }
+
+        return body.map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    // Malformed cursor or query encoding
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("error", "Invalid request");
+                    errorResponse.put("message", e.getMessage());
+                    return Mono.just(ResponseEntity.status(400).body(errorResponse));
+                })
+                .onErrorResume(e -> {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("error", "Failed to fetch trips");
+                    errorResponse.put("message", e.getMessage());
+                    return Mono.just(ResponseEntity.status(500).body(errorResponse));
+                });
+    }
+
+    /**
+     * The newest trips as newline-delimited JSON, at most trip.reactive.stream-max-trips
+     * of them (GET /api/trips/export has the whole catalog for logged-in users). Rows
+     * are read from the database only as fast as the client consumes the response.
+     * Spring MVC gives NDJSON streams no async timeout, so a slow reader is not cut off.
+     */
+    @GetMapping(value = "/trips/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TripSummary> streamTrips(
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int maxTrips = limit != null ? Math.min(Math.max(limit, 1), streamMaxTrips) : streamMaxTrips;
+        return reactiveTripReadService.streamFeed(maxTrips);
+    }
+
+    @GetMapping("/trips/{id}")
+    public Mono<ResponseEntity<TripDetail>> getTripById(@PathVariable Long id) {
+        return reactiveTripReadService.getDetail(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
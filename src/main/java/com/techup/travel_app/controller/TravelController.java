@@ -1,89 +1,186 @@
 package com.techup.travel_app.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techup.travel_app.dto.NearbyTrip;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
 import com.techup.travel_app.entity.Trip;
 import com.techup.travel_app.entity.User;
 import com.techup.travel_app.repository.TripRepository;
-import com.techup.travel_app.service.SupabaseStorageService;
+import com.techup.travel_app.service.DirectUploadService;
+import com.techup.travel_app.service.FeedSnapshotService;
+import com.techup.travel_app.service.ImageVariantService;
+import com.techup.travel_app.service.PhotoCleanupService;
+import com.techup.travel_app.service.PhotoUploadService;
+import com.techup.travel_app.service.ProvinceLocator;
+import com.techup.travel_app.service.ResumableUploadService;
+import com.techup.travel_app.service.TripCacheService;
+import com.techup.travel_app.service.TripFeedService;
+import com.techup.travel_app.service.TripGeoIndex;
+import com.techup.travel_app.service.TripSearchBackend;
+import com.techup.travel_app.service.TripTransferService;
+import com.techup.travel_app.util.TripValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api")
 public class TravelController {
 
+    private static final Logger log = LoggerFactory.getLogger(TravelController.class);
+
     @Autowired
     private TripRepository tripRepository;
     
     @Autowired
-    private SupabaseStorageService storageService;
+    private PhotoUploadService photoUploadService;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    @Autowired
+    private PhotoCleanupService photoCleanupService;
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+    
+    @Autowired
+    private TripSearchBackend tripSearchBackend;
+    
+    @Autowired
+    private TripFeedService tripFeedService;
+    
+    @Autowired
+    private TripGeoIndex tripGeoIndex;
+    
+    @Autowired
+    private ProvinceLocator provinceLocator;
+    
+    @Autowired
+    private TripCacheService tripCacheService;
+    
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+    
+    @Autowired
+    private TripTransferService tripTransferService;
+    
+    // Upper bound on page size so popular queries cannot return the whole catalog
+    private static final int MAX_PAGE_SIZE = 50;
+    
+    // Largest radius a nearby search may ask for
+    private static final double MAX_NEARBY_RADIUS_KM = 500;
+    
+    // Most trips one batch create may send
+    private static final int MAX_BATCH_TRIPS = 1000;
+    
+    // Batch create: only the first few invalid trips are reported back
+    private static final int MAX_REPORTED_ERRORS = 20;
+    
+    // Newline-delimited JSON, used by the trip export and import
+    private static final String NDJSON = "application/x-ndjson";
 
     @GetMapping("/trips")
-    public ResponseEntity<Map<String, Object>> getAllTrips(
+    public ResponseEntity<?> getAllTrips(
             @RequestParam(value = "query", required = false) String query,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size) {
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+            WebRequest webRequest) {
         
         try {
-            List<Trip> trips;
+            // The first feed pages are served as pre-serialized bytes from the snapshot
+            if ((query == null || query.trim().isEmpty()) && page <= 0) {
+                FeedSnapshotService.SnapshotPage snapshotPage = feedSnapshotService.find(cursor, size);
+                if (snapshotPage != null) {
+                    return serveSnapshot(snapshotPage, acceptEncoding, webRequest);
+                }
+            }
+            
+            List<TripSummary> trips;
+            long total;
+            boolean hasMore;
+            String nextCursor = null;
+            boolean totalEstimated = false;
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
             
             if (query != null && !query.trim().isEmpty()) {
                 // Search functionality with proper UTF-8 handling for Thai text
                 String decodedQuery = java.net.URLDecoder.decode(query.trim(), "UTF-8");
                 System.out.println("Search query: " + decodedQuery); // Debug log
-                trips = tripRepository.searchByTitleOrTags(decodedQuery);
-                System.out.println("Found " + trips.size() + " trips for query: " + decodedQuery); // Debug log
+                Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+                Page<Long> results = tripSearchBackend.search(decodedQuery, pageable);
+                trips = loadSummariesInOrder(results.getContent());
+                total = results.getTotalElements();
+                hasMore = results.hasNext();
+                System.out.println("Found " + total + " trips for query: " + decodedQuery); // Debug log
+            } else if (page > 0) {
+                // Legacy OFFSET paging for old clients - gets slower the deeper you go, prefer the cursor
+                Pageable pageable = PageRequest.of(page, pageSize);
+                Page<TripSummary> tripPage = tripRepository.findSummaryPage(pageable);
+                trips = tripPage.getContent();
+                total = tripPage.getTotalElements();
+                hasMore = tripPage.hasNext();
             } else {
-                // Get all trips
-                if (page == 0 && size == 10) {
-                    // Default - return all without pagination for simplicity
-                    trips = tripRepository.findAllByOrderByCreatedAtDesc();
-                } else {
-                    // Paginated
-                    Pageable pageable = PageRequest.of(page, size);
-                    Page<Trip> tripPage = tripRepository.findAllByOrderByCreatedAtDesc(pageable);
-                    trips = tripPage.getContent();
-                }
+                // Keyset feed: pass nextCursor back as ?cursor= to get the following page
+                TripFeedService.FeedPage feed = tripCacheService.getFeedPage(cursor, pageSize,
+                        () -> tripFeedService.getFeed(cursor, pageSize));
+                trips = feed.trips();
+                total = feed.total();
+                totalEstimated = feed.totalEstimated();
+                nextCursor = feed.nextCursor();
+                hasMore = nextCursor != null;
             }
             
-            // Convert trips to response format - handle province column gracefully
-            List<Map<String, Object>> tripList = trips.stream()
-                    .map(trip -> {
-                        try {
-                            return convertTripToMap(trip);
-                        } catch (Exception e) {
-                            // Handle database column issues gracefully
-                            System.err.println("Error converting trip " + trip.getId() + ": " + e.getMessage());
-                            Map<String, Object> fallbackMap = new HashMap<>();
-                            fallbackMap.put("id", trip.getId());
-                            fallbackMap.put("title", trip.getTitle());
-                            fallbackMap.put("description", trip.getShortDescription());
-                            fallbackMap.put("coverImage", trip.getCoverImage());
-                            fallbackMap.put("province", "Unknown"); // Fallback value
-                            fallbackMap.put("tags", trip.getTagsArray());
-                            fallbackMap.put("createdAt", trip.getCreatedAt());
-                            return fallbackMap;
-                        }
-                    })
-                    .collect(Collectors.toList());
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("trips", tripList);
-            response.put("total", tripList.size());
+            response.put("trips", trips);
+            response.put("total", total);
+            response.put("totalEstimated", totalEstimated);
+            response.put("hasMore", hasMore);
+            response.put("nextCursor", nextCursor);
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor or query encoding
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid request");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(400).body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to fetch trips");
@@ -93,15 +190,26 @@ public class TravelController {
     }
 
     @GetMapping("/trips/{id}")
-    public ResponseEntity<Map<String, Object>> getTripById(@PathVariable Long id) {
+    public ResponseEntity<?> getTripById(@PathVariable Long id, WebRequest webRequest) {
         try {
-            Trip trip = tripRepository.findById(id).orElse(null);
+            TripDetail trip = tripCacheService.getDetail(id,
+                    tripId -> tripRepository.findById(tripId).map(TripDetail::from).orElse(null));
             
             if (trip == null) {
                 return ResponseEntity.notFound().build();
             }
             
-            return ResponseEntity.ok(convertTripToDetailMap(trip));
+            // ETag changes whenever the trip is updated
+            String etag = "\"trip-" + trip.id() + "-"
+                    + (trip.updatedAt() != null ? trip.updatedAt().toString() : "0") + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(trip);
             
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -110,63 +218,134 @@ public class TravelController {
         }
     }
 
-    private Map<String, Object> convertTripToMap(Trip trip) {
-        Map<String, Object> tripMap = new HashMap<>();
-        tripMap.put("id", trip.getId());
-        tripMap.put("title", trip.getTitle());
-        tripMap.put("description", trip.getShortDescription());
-        tripMap.put("coverImage", trip.getCoverImage());
-        tripMap.put("province", trip.getProvince());
-        tripMap.put("tags", trip.getTagsArray());
-        tripMap.put("photos", trip.getPhotosArray()); // Add full photos array for editing
-        tripMap.put("location", trip.getLocation()); // Add location field for editing
-        tripMap.put("locationLink", trip.getLocationLink()); // Add location link for editing
-        tripMap.put("createdAt", trip.getCreatedAt());
-        tripMap.put("updatedAt", trip.getUpdatedAt());
+    // Send a snapshot page, gzip-encoded if the client accepts it, or 304 if the client's copy is current
+    private ResponseEntity<?> serveSnapshot(FeedSnapshotService.SnapshotPage snapshotPage,
+                                            String acceptEncoding, WebRequest webRequest) {
+        boolean useGzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        FeedSnapshotService.Variant variant = useGzip ? snapshotPage.gzip() : snapshotPage.identity();
         
-        // Include author_id for ownership checks
-        if (trip.getAuthor() != null) {
-            tripMap.put("authorId", trip.getAuthor().getId());
-            tripMap.put("authorName", trip.getAuthor().getDisplayName());
-        } else {
-            // Legacy trips without author
-            tripMap.put("authorId", null);
-            tripMap.put("authorName", "Travel Blogger");
+        if (webRequest.checkNotModified(variant.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(variant.etag()).build();
         }
         
-        return tripMap;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(variant.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (useGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(variant.body());
+    }
+    
+    // Load list summaries for ranked ids (cache first, misses in one query), keeping the ranking order
+    private List<TripSummary> loadSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return tripCacheService.getSummaries(ids, tripRepository::findSummariesByIdIn);
     }
     
-    private Map<String, Object> convertTripToDetailMap(Trip trip) {
-        Map<String, Object> tripMap = new HashMap<>();
-        tripMap.put("id", trip.getId());
-        tripMap.put("title", trip.getTitle());
-        tripMap.put("description", trip.getDescription()); // Full description
-        tripMap.put("photos", trip.getPhotosArray());
-        tripMap.put("tags", trip.getTagsArray());
-        tripMap.put("latitude", trip.getLatitude());
-        tripMap.put("longitude", trip.getLongitude());
-        tripMap.put("location", trip.getLocation());
-        tripMap.put("province", trip.getProvince());
-        tripMap.put("locationLink", trip.getLocationLink());
-        tripMap.put("createdAt", trip.getCreatedAt());
-        tripMap.put("updatedAt", trip.getUpdatedAt());
+    /**
+     * Trips near a point, closest first. With radiusKm only trips inside the
+     * radius are returned; without it the nearest trips are returned however far away.
+     */
+    @GetMapping("/trips/nearby")
+    public ResponseEntity<Map<String, Object>> getNearbyTrips(
+            @RequestParam("lat") double latitude,
+            @RequestParam("lng") double longitude,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
         
-        // Include actual author information for ownership checks
-        Map<String, Object> author = new HashMap<>();
-        if (trip.getAuthor() != null) {
-            author.put("id", trip.getAuthor().getId());
-            author.put("displayName", trip.getAuthor().getDisplayName());
-            author.put("email", trip.getAuthor().getEmail());
-        } else {
-            // Legacy trips without author
-            author.put("id", null);
-            author.put("displayName", "Travel Blogger");
-            author.put("email", "blogger@example.com");
-        }
-        tripMap.put("author", author);
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180
+                || (radiusKm != null && (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM))) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid request");
+            errorResponse.put("message", "lat must be -90..90, lng -180..180 and radiusKm 0.." + (int) MAX_NEARBY_RADIUS_KM);
+            return ResponseEntity.status(400).body(errorResponse);
+        }
         
-        return tripMap;
+        try {
+            int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+            List<TripGeoIndex.Hit> hits = radiusKm != null
+                    ? tripGeoIndex.withinRadius(latitude, longitude, radiusKm, pageSize)
+                    : tripGeoIndex.nearest(latitude, longitude, pageSize);
+            
+            Map<Long, Double> distances = new HashMap<>();
+            List<Long> ids = new ArrayList<>();
+            for (TripGeoIndex.Hit hit : hits) {
+                distances.put(hit.tripId(), hit.distanceKm());
+                ids.add(hit.tripId());
+            }
+            
+            // Summaries come back in distance order; trips deleted meanwhile are skipped
+            List<NearbyTrip> trips = new ArrayList<>();
+            for (TripSummary summary : loadSummariesInOrder(ids)) {
+                trips.add(new NearbyTrip(summary, distances.get(summary.id())));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("trips", trips);
+            response.put("total", trips.size());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to fetch nearby trips");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    /**
+     * Map markers for a bounding box: trips grouped per 64x64 screen pixels (4x4
+     * cells per 256px map tile) at the given zoom, each with a count and centroid.
+     * A marker with count 1 carries the trip id; fetch /api/trips/{id} when it is opened.
+     */
+    @GetMapping("/trips/clusters")
+    public ResponseEntity<Map<String, Object>> getTripClusters(
+            @RequestParam("south") double south,
+            @RequestParam("west") double west,
+            @RequestParam("north") double north,
+            @RequestParam("east") double east,
+            @RequestParam("zoom") int zoom) {
+        
+        // west > east is allowed: the box crosses the antimeridian
+        if (south < -90 || north > 90 || south > north || west < -180 || west > 180 || east < -180 || east > 180
+                || zoom < 0 || zoom > TripGeoIndex.MAX_CLUSTER_ZOOM) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid request");
+            errorResponse.put("message", "Expected south <= north within -90..90, west/east within -180..180 and zoom 0.."
+                    + TripGeoIndex.MAX_CLUSTER_ZOOM);
+            return ResponseEntity.status(400).body(errorResponse);
+        }
+        
+        try {
+            List<TripGeoIndex.Cluster> clusters = tripGeoIndex.clusters(south, west, north, east, zoom);
+            long total = 0;
+            for (TripGeoIndex.Cluster cluster : clusters) {
+                total += cluster.count();
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("zoom", zoom);
+            response.put("clusters", clusters);
+            response.put("total", total);
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            // Box covers too much of the map for this zoom
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid request");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(400).body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to fetch map clusters");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
     }
     
     // Get trips created by the current user
@@ -184,15 +363,11 @@ public class TravelController {
             }
             
             // Return only user's trips
-            List<Trip> trips = tripRepository.findByAuthorIdOrderByCreatedAtDesc(userId);
-            
-            List<Map<String, Object>> tripList = trips.stream()
-                    .map(this::convertTripToMap)
-                    .collect(Collectors.toList());
+            List<TripSummary> trips = tripRepository.findSummariesByAuthorId(userId);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("trips", tripList);
-            response.put("total", tripList.size());
+            response.put("trips", trips);
+            response.put("total", trips.size());
             response.put("userId", userId); // Send userId to frontend for ownership checks
             
             return ResponseEntity.ok(response);
@@ -219,55 +394,100 @@ public class TravelController {
                 return ResponseEntity.status(401).body(errorResponse);
             }
             
-            Trip trip = new Trip();
-            trip.setTitle((String) tripData.get("title"));
-            trip.setDescription((String) tripData.get("description"));
-            trip.setLocation((String) tripData.get("location"));
-            if (tripData.containsKey("province")) {
-                trip.setProvince((String) tripData.get("province"));
-            }
-            if (tripData.containsKey("locationLink")) {
-                trip.setLocationLink((String) tripData.get("locationLink"));
-            }
+            Trip trip = tripFromRequest(tripData, userId);
+            fillProvince(trip);
+            Trip savedTrip = tripRepository.save(trip);
+            tripSearchBackend.onTripSaved(savedTrip);
+            tripGeoIndex.onTripSaved(savedTrip);
+            tripCacheService.evictTrip(savedTrip.getId());
+            feedSnapshotService.invalidate();
             
-            // Set author if user is authenticated
-            if (userId != null) {
-                User author = new User();
-                author.setId(userId);
-                trip.setAuthor(author);
-            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Trip created successfully");
+            response.put("trip", TripDetail.from(savedTrip));
             
-            // Handle photos array
-            if (tripData.get("photos") instanceof List) {
-                List<String> photosList = (List<String>) tripData.get("photos");
-                trip.setPhotos(String.join(",", photosList));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to create trip");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    // Create many trips in one request: one transaction, inserts sent to the database in JDBC batches
+    @PostMapping("/trips/batch")
+    public ResponseEntity<Map<String, Object>> createTrips(
+            @RequestBody List<Map<String, Object>> tripsData,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        try {
+            Long userId = extractUserIdFromToken(authHeader);
+            
+            // Require authentication for creating trips
+            if (userId == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Please log in to continue.");
+                return ResponseEntity.status(401).body(errorResponse);
             }
             
-            // Handle tags array
-            if (tripData.get("tags") instanceof List) {
-                List<String> tagsList = (List<String>) tripData.get("tags");
-                trip.setTags(String.join(",", tagsList));
+            if (tripsData.isEmpty() || tripsData.size() > MAX_BATCH_TRIPS) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Send between 1 and " + MAX_BATCH_TRIPS + " trips per batch");
+                return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            if (tripData.get("latitude") != null) {
-                trip.setLatitude(Double.parseDouble(tripData.get("latitude").toString()));
+            // Check everything first: one bad trip would roll back the whole batch anyway
+            List<String> errors = new ArrayList<>();
+            int invalid = 0;
+            for (int i = 0; i < tripsData.size(); i++) {
+                String reason = TripValidator.validate(tripsData.get(i));
+                if (reason != null) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("trip " + i + ": " + reason);
+                    }
+                }
             }
-            if (tripData.get("longitude") != null) {
-                trip.setLongitude(Double.parseDouble(tripData.get("longitude").toString()));
+            if (invalid > 0) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", invalid + " of " + tripsData.size() + " trips are invalid, nothing was created");
+                errorResponse.put("errors", errors);
+                return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            Trip savedTrip = tripRepository.save(trip);
+            List<Trip> trips = new ArrayList<>(tripsData.size());
+            for (Map<String, Object> tripData : tripsData) {
+                Trip trip = tripFromRequest(tripData, userId);
+                // Like the import, a batch may bring the original creation time along
+                if (tripData.get("createdAt") instanceof String createdAt) {
+                    trip.setCreatedAt(LocalDateTime.parse(createdAt));
+                }
+                fillProvince(trip);
+                trips.add(trip);
+            }
+            
+            List<Trip> savedTrips = tripRepository.saveAll(trips);
+            List<Long> ids = new ArrayList<>(savedTrips.size());
+            for (Trip savedTrip : savedTrips) {
+                ids.add(savedTrip.getId());
+            }
+            tripSearchBackend.onTripsSaved(savedTrips);
+            tripGeoIndex.onTripsSaved(savedTrips);
+            tripCacheService.evictTrips(ids);
+            feedSnapshotService.invalidate();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Trip created successfully");
-            response.put("trip", convertTripToDetailMap(savedTrip));
+            response.put("message", ids.size() + " trips created successfully");
+            response.put("ids", ids);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Failed to create trip");
+            errorResponse.put("error", "Failed to create trips");
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(500).body(errorResponse);
         }
@@ -304,6 +524,12 @@ public class TravelController {
                 return ResponseEntity.status(403).body(errorResponse);
             }
             
+            // What the edit form showed, to tell a changed province from the one it sends back
+            String displayedProvince = trip.getProvince();
+            Double previousLatitude = trip.getLatitude();
+            Double previousLongitude = trip.getLongitude();
+            String[] previousTags = trip.getTagsArray();
+            
             // Update fields
             if (tripData.containsKey("title")) {
                 trip.setTitle((String) tripData.get("title"));
@@ -314,23 +540,21 @@ public class TravelController {
             if (tripData.containsKey("location")) {
                 trip.setLocation((String) tripData.get("location"));
             }
-            if (tripData.containsKey("province")) {
-                trip.setProvince((String) tripData.get("province"));
-            }
             if (tripData.containsKey("locationLink")) {
                 trip.setLocationLink((String) tripData.get("locationLink"));
             }
             
             // Handle photos array
+            String[] previousPhotos = trip.getPhotosArray();
             if (tripData.containsKey("photos") && tripData.get("photos") instanceof List) {
                 List<String> photosList = (List<String>) tripData.get("photos");
-                trip.setPhotos(String.join(",", photosList));
+                trip.setPhotos(photosList);
             }
             
             // Handle tags array
             if (tripData.containsKey("tags") && tripData.get("tags") instanceof List) {
                 List<String> tagsList = (List<String>) tripData.get("tags");
-                trip.setTags(String.join(",", tagsList));
+                trip.setTags(tagsList);
             }
             
             if (tripData.containsKey("latitude")) {
@@ -340,12 +564,19 @@ public class TravelController {
                 trip.setLongitude(Double.parseDouble(tripData.get("longitude").toString()));
             }
             
+            updateProvince(trip, (String) tripData.get("province"), displayedProvince,
+                    previousLatitude, previousLongitude, previousTags);
             Trip updatedTrip = tripRepository.save(trip);
+            tripSearchBackend.onTripSaved(updatedTrip);
+            tripGeoIndex.onTripSaved(updatedTrip);
+            tripCacheService.evictTrip(updatedTrip.getId());
+            feedSnapshotService.invalidate();
+            photoCleanupService.enqueueRemoved(previousPhotos, updatedTrip.getPhotoVariants(), updatedTrip.getPhotosArray());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Trip updated successfully");
-            response.put("trip", convertTripToDetailMap(updatedTrip));
+            response.put("trip", TripDetail.from(updatedTrip));
             
             return ResponseEntity.ok(response);
             
@@ -388,6 +619,12 @@ public class TravelController {
             }
             
             tripRepository.delete(trip);
+            tripSearchBackend.onTripDeleted(id);
+            tripGeoIndex.onTripDeleted(id);
+            tripCacheService.evictTrip(id);
+            feedSnapshotService.invalidate();
+            // Photos are deleted from storage later by the cleanup worker
+            photoCleanupService.enqueueRemoved(trip.getPhotosArray(), trip.getPhotoVariants(), new String[0]);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -403,6 +640,131 @@ public class TravelController {
         }
     }
     
+    // Export every trip as NDJSON, streamed straight from a database cursor
+    @GetMapping(value = "/trips/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTrips(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            // Same body as the other endpoints; the return type only allows a streamed body
+            byte[] errorResponse = "{\"error\":\"Please log in to continue.\"}".getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(401).contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(errorResponse));
+        }
+        
+        // Written after this method returns, on the async request thread; a large catalog takes
+        // minutes, so spring.mvc.async.request-timeout is raised well above Tomcat's 30 s default
+        StreamingResponseBody body = out -> {
+            long count = tripTransferService.exportTo(out);
+            log.debug("Exported {} trips", count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trips.ndjson\"")
+                .body(body);
+    }
+    
+    // Import trips from NDJSON (the export format); every line becomes a new trip owned by the caller
+    @PostMapping(value = "/trips/import", consumes = NDJSON)
+    public ResponseEntity<Map<String, Object>> importTrips(
+            HttpServletRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Please log in to continue.");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+        
+        try {
+            TripTransferService.ImportResult result = tripTransferService.importFrom(request.getInputStream(), userId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("imported", result.imported());
+            response.put("skipped", result.skipped());
+            response.put("errors", result.errors());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to import trips");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    // Helper method to build a new trip from a JSON request body (single and batch create)
+    private Trip tripFromRequest(Map<String, Object> tripData, Long userId) {
+        Trip trip = new Trip();
+        trip.setTitle((String) tripData.get("title"));
+        trip.setDescription((String) tripData.get("description"));
+        trip.setLocation((String) tripData.get("location"));
+        if (tripData.containsKey("province")) {
+            trip.setProvince((String) tripData.get("province"));
+        }
+        if (tripData.containsKey("locationLink")) {
+            trip.setLocationLink((String) tripData.get("locationLink"));
+        }
+            
+        // Set author if user is authenticated
+        if (userId != null) {
+            User author = new User();
+            author.setId(userId);
+            trip.setAuthor(author);
+        }
+            
+        // Handle photos array
+        if (tripData.get("photos") instanceof List) {
+            List<String> photosList = (List<String>) tripData.get("photos");
+            trip.setPhotos(photosList);
+        }
+            
+        // Handle tags array
+        if (tripData.get("tags") instanceof List) {
+            List<String> tagsList = (List<String>) tripData.get("tags");
+            trip.setTags(tagsList);
+        }
+            
+        if (tripData.get("latitude") != null) {
+            trip.setLatitude(Double.parseDouble(tripData.get("latitude").toString()));
+        }
+        if (tripData.get("longitude") != null) {
+            trip.setLongitude(Double.parseDouble(tripData.get("longitude").toString()));
+        }
+        
+        return trip;
+    }
+    
+    // Helper method to fill a blank province from the coordinates or a province named in the tags.
+    // Nothing is stored when neither matches; reads then show the last-tag guess.
+    private void fillProvince(Trip trip) {
+        if (!trip.hasProvince()) {
+            trip.setProvince(provinceLocator.resolve(trip.getLatitude(), trip.getLongitude(), trip.getTagsArray()));
+        }
+    }
+    
+    // Helper method to set the province on update. The edit form sends back the province it
+    // displayed, so only a different value counts as chosen by the user; otherwise the
+    // province is resolved again when the coordinates or tags changed (or it was never stored)
+    private void updateProvince(Trip trip, String requestedProvince, String displayedProvince,
+                                Double previousLatitude, Double previousLongitude, String[] previousTags) {
+        if (requestedProvince != null && !requestedProvince.isBlank()
+                && !requestedProvince.equals(displayedProvince)) {
+            trip.setProvince(requestedProvince);
+            return;
+        }
+        boolean locationChanged = !Objects.equals(previousLatitude, trip.getLatitude())
+                || !Objects.equals(previousLongitude, trip.getLongitude())
+                || !Arrays.equals(previousTags, trip.getTagsArray());
+        if (locationChanged || !trip.hasProvince()) {
+            String province = provinceLocator.resolve(trip.getLatitude(), trip.getLongitude(), trip.getTagsArray());
+            if (province != null) {
+                trip.setProvince(province);
+            }
+        }
+    }
+    
     // Helper method to extract user ID from JWT token
     private Long extractUserIdFromToken(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -496,35 +858,29 @@ public class TravelController {
                 trip.setTags(tagsStr);
             }
             
-            // Upload photos to Supabase and get URLs
-            List<String> photoUrls = new ArrayList<>();
-            if (photos != null && photos.length > 0) {
-                for (MultipartFile photo : photos) {
-                    if (!photo.isEmpty()) {
-                        try {
-                            String url = storageService.uploadFile(photo);
-                            photoUrls.add(url);
-                            System.out.println("Successfully uploaded photo: " + url);
-                        } catch (Exception e) {
-                            System.err.println("Failed to upload photo: " + e.getMessage());
-                            e.printStackTrace();
-                        }
-                    }
-                }
-            }
+            // Upload photos to Supabase concurrently and get URLs (in submission order)
+            PhotoUploadService.UploadResult uploads = photoUploadService.uploadAll(photos);
+            List<String> photoUrls = new ArrayList<>(uploads.urls());
             
-            if (!photoUrls.isEmpty()) {
-                trip.setPhotos(String.join(",", photoUrls));
-            } else {
-                trip.setPhotos(""); // Set empty string instead of null
-            }
+            trip.setPhotos(photoUrls);
             
+            fillProvince(trip);
             Trip savedTrip = tripRepository.save(trip);
+            tripSearchBackend.onTripSaved(savedTrip);
+            tripGeoIndex.onTripSaved(savedTrip);
+            tripCacheService.evictTrip(savedTrip.getId());
+            feedSnapshotService.invalidate();
+            // Resized variants are created in the background and show up once ready
+            imageVariantService.processAsync(savedTrip.getId(), photos, uploads.uploaded());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Trip created successfully");
-            response.put("trip", convertTripToDetailMap(savedTrip));
+            response.put("trip", TripDetail.from(savedTrip));
+            if (!uploads.failures().isEmpty()) {
+                // Trip is saved without these photos; let the client offer a retry
+                response.put("failedPhotos", uploads.failures());
+            }
             
             return ResponseEntity.ok(response);
             
@@ -582,12 +938,14 @@ public class TravelController {
             
             System.out.println("Update allowed for trip " + id + " by user " + userId);
             
+            String displayedProvince = trip.getProvince();
+            Double previousLatitude = trip.getLatitude();
+            Double previousLongitude = trip.getLongitude();
+            String[] previousTags = trip.getTagsArray();
+            
             // Update basic fields
             trip.setTitle(title);
             trip.setDescription(description);
-            if (province != null && !province.isEmpty()) {
-                trip.setProvince(province);
-            }
             trip.setLocation(location);
             trip.setLocationLink(locationLink);
             
@@ -613,6 +971,7 @@ public class TravelController {
             }
             
             // Handle photos
+            String[] previousPhotos = trip.getPhotosArray();
             List<String> photoUrls = new ArrayList<>();
             
             // Add existing photos
@@ -625,34 +984,31 @@ public class TravelController {
                 }
             }
             
-            // Upload new photos
-            if (photos != null && photos.length > 0) {
-                for (MultipartFile photo : photos) {
-                    if (!photo.isEmpty()) {
-                        try {
-                            String url = storageService.uploadFile(photo);
-                            photoUrls.add(url);
-                            System.out.println("Successfully uploaded photo: " + url);
-                        } catch (Exception e) {
-                            System.err.println("Failed to upload photo: " + e.getMessage());
-                            e.printStackTrace();
-                        }
-                    }
-                }
-            }
+            // Upload new photos concurrently, appended after the existing ones
+            PhotoUploadService.UploadResult uploads = photoUploadService.uploadAll(photos);
+            photoUrls.addAll(uploads.urls());
             
-            if (!photoUrls.isEmpty()) {
-                trip.setPhotos(String.join(",", photoUrls));
-            } else {
-                trip.setPhotos(""); // Set empty string instead of null
-            }
+            trip.setPhotos(photoUrls);
             
+            updateProvince(trip, province, displayedProvince, previousLatitude, previousLongitude, previousTags);
             Trip updatedTrip = tripRepository.save(trip);
+            tripSearchBackend.onTripSaved(updatedTrip);
+            tripGeoIndex.onTripSaved(updatedTrip);
+            tripCacheService.evictTrip(updatedTrip.getId());
+            feedSnapshotService.invalidate();
+            // Resized variants are created in the background and show up once ready
+            imageVariantService.processAsync(updatedTrip.getId(), photos, uploads.uploaded());
+            // Photos left out of existingPhotos are deleted from storage later
+            photoCleanupService.enqueueRemoved(previousPhotos, updatedTrip.getPhotoVariants(), updatedTrip.getPhotosArray());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Trip updated successfully");
-            response.put("trip", convertTripToDetailMap(updatedTrip));
+            response.put("trip", TripDetail.from(updatedTrip));
+            if (!uploads.failures().isEmpty()) {
+                // Trip is saved without these photos; let the client offer a retry
+                response.put("failedPhotos", uploads.failures());
+            }
             
             return ResponseEntity.ok(response);
             
@@ -664,4 +1020,299 @@ public class TravelController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
+
+    /**
+     * Request body for signing direct uploads
+     * @param files The photos the client is about to upload
+     */
+    public record SignUploadsRequest(List<DirectUploadService.FileSpec> files) {
+    }
+
+    /**
+     * Request body for attaching direct uploads to a trip
+     * @param tickets Tickets returned by the sign endpoint, for uploads that have finished
+     */
+    public record ConfirmUploadsRequest(List<String> tickets) {
+    }
+
+    /**
+     * Sign uploads so the browser can send photo bytes straight to storage.
+     * Photos whose hash is already stored come back as alreadyStored and need no upload.
+     */
+    @PostMapping("/trips/uploads/sign")
+    public ResponseEntity<Map<String, Object>> signPhotoUploads(
+            @RequestBody SignUploadsRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Please log in to continue.");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("uploads", directUploadService.prepare(userId, request.files()));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (ResponseStatusException e) {
+            // e.g. 503 when no signing key is configured
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getReason());
+            return ResponseEntity.status(e.getStatusCode()).body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to sign uploads");
+            errorResponse.put("message", e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(502).body(errorResponse);
+        }
+    }
+
+    /**
+     * Attach directly uploaded photos to a trip, after the existing ones
+     */
+    @PostMapping("/trips/{id}/photos/confirm")
+    public ResponseEntity<Map<String, Object>> confirmPhotoUploads(
+            @PathVariable Long id,
+            @RequestBody ConfirmUploadsRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        try {
+            Long userId = extractUserIdFromToken(authHeader);
+            if (userId == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Please log in to continue.");
+                return ResponseEntity.status(401).body(errorResponse);
+            }
+
+            Trip trip = tripRepository.findById(id).orElse(null);
+            if (trip == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Trip not found");
+                return ResponseEntity.status(404).body(errorResponse);
+            }
+
+            // Check ownership - allow if no author or user owns the trip
+            if (trip.getAuthor() != null && !trip.getAuthor().getId().equals(userId)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "You can only edit your own trips.");
+                return ResponseEntity.status(403).body(errorResponse);
+            }
+
+            List<String> confirmed;
+            try {
+                confirmed = directUploadService.confirm(userId, request.tickets());
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            // A retried confirm must not add the same photo twice
+            List<String> photoUrls = new ArrayList<>(List.of(trip.getPhotosArray()));
+            List<String> added = new ArrayList<>();
+            for (String url : confirmed) {
+                if (!photoUrls.contains(url)) {
+                    photoUrls.add(url);
+                    added.add(url);
+                }
+            }
+
+            Trip updatedTrip = trip;
+            if (!added.isEmpty()) {
+                trip.setPhotos(photoUrls);
+                updatedTrip = tripRepository.save(trip);
+                tripSearchBackend.onTripSaved(updatedTrip);
+                tripCacheService.evictTrip(updatedTrip.getId());
+                feedSnapshotService.invalidate();
+                // The bytes never passed through us, so the worker downloads them for resizing
+                imageVariantService.processStoredAsync(updatedTrip.getId(), added);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Photos added successfully");
+            response.put("trip", TripDetail.from(updatedTrip));
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to add photos");
+            errorResponse.put("message", e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    // Protocol version of the resumable upload endpoints (https://tus.io/protocols/resumable-upload)
+    private static final String TUS_VERSION = "1.0.0";
+
+    /**
+     * Start a resumable photo upload. Headers follow tus: Upload-Length is the file size,
+     * Upload-Metadata carries base64 "filename" and "filetype".
+     */
+    @PostMapping("/trips/uploads/resumable")
+    public ResponseEntity<Map<String, Object>> createResumableUpload(
+            @RequestHeader(value = "Upload-Length", required = false) Long uploadLength,
+            @RequestHeader(value = "Upload-Metadata", required = false) String uploadMetadata,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Please log in to continue.");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+        if (uploadLength == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Upload-Length header is required");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        try {
+            Map<String, String> metadata = parseUploadMetadata(uploadMetadata);
+            ResumableUploadService.UploadStatus upload = resumableUploadService.create(
+                    userId, uploadLength, metadata.get("filename"), metadata.get("filetype"));
+            return ResponseEntity.status(201)
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(upload.id()).toUri())
+                    .headers(resumableHeaders(upload))
+                    .body(resumableBody(upload));
+        } catch (ResponseStatusException e) {
+            return resumableError(e);
+        }
+    }
+
+    /**
+     * Offset of a resumable upload, so the client knows which bytes to send next
+     */
+    @RequestMapping(value = "/trips/uploads/resumable/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getResumableUploadOffset(
+            @PathVariable String uploadId,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        try {
+            ResumableUploadService.UploadStatus upload = resumableUploadService.status(userId, uploadId);
+            return ResponseEntity.ok().headers(resumableHeaders(upload)).build();
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).header("Tus-Resumable", TUS_VERSION).build();
+        }
+    }
+
+    /**
+     * Append a chunk to a resumable upload. The chunk must start at the current offset;
+     * the response after the last chunk carries the photo URL and a ticket for /photos/confirm.
+     */
+    @PatchMapping(value = "/trips/uploads/resumable/{uploadId}", consumes = "application/offset+octet-stream")
+    public ResponseEntity<Map<String, Object>> appendResumableUpload(
+            @PathVariable String uploadId,
+            @RequestHeader("Upload-Offset") long uploadOffset,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            HttpServletRequest request) {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Please log in to continue.");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+
+        try {
+            // The body is streamed to the temp file; only a small copy buffer is held per request
+            ResumableUploadService.UploadStatus upload =
+                    resumableUploadService.append(userId, uploadId, uploadOffset, request.getInputStream());
+            return ResponseEntity.ok().headers(resumableHeaders(upload)).body(resumableBody(upload));
+        } catch (ResponseStatusException e) {
+            return resumableError(e);
+        } catch (IOException e) {
+            // Usually the client went away mid-chunk; what arrived is kept for the retry
+            log.warn("Resumable upload {} interrupted: {}", uploadId, e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Upload interrupted, resume from the current offset");
+            return ResponseEntity.status(500).header("Tus-Resumable", TUS_VERSION).body(errorResponse);
+        }
+    }
+
+    /**
+     * Abandon a resumable upload and delete the bytes received so far
+     */
+    @DeleteMapping("/trips/uploads/resumable/{uploadId}")
+    public ResponseEntity<Map<String, Object>> cancelResumableUpload(
+            @PathVariable String uploadId,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) throws IOException {
+        Long userId = extractUserIdFromToken(authHeader);
+        if (userId == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Please log in to continue.");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+
+        try {
+            resumableUploadService.cancel(userId, uploadId);
+            return ResponseEntity.noContent().header("Tus-Resumable", TUS_VERSION).build();
+        } catch (ResponseStatusException e) {
+            return resumableError(e);
+        }
+    }
+
+    // Helper method to build the tus response headers for an upload
+    private HttpHeaders resumableHeaders(ResumableUploadService.UploadStatus upload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Tus-Resumable", TUS_VERSION);
+        headers.set("Upload-Offset", String.valueOf(upload.offset()));
+        headers.set("Upload-Length", String.valueOf(upload.length()));
+        headers.set("Upload-Expires", DateTimeFormatter.RFC_1123_DATE_TIME.format(upload.expiresAt().atOffset(ZoneOffset.UTC)));
+        if (upload.ticket() != null) {
+            headers.set("Upload-Ticket", upload.ticket());
+        }
+        headers.setCacheControl(CacheControl.noStore());
+        return headers;
+    }
+
+    // Helper method to build the JSON body for an upload
+    private Map<String, Object> resumableBody(ResumableUploadService.UploadStatus upload) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("id", upload.id());
+        response.put("offset", upload.offset());
+        response.put("length", upload.length());
+        response.put("complete", upload.complete());
+        if (upload.complete()) {
+            response.put("url", upload.url());
+            response.put("ticket", upload.ticket());
+        }
+        return response;
+    }
+
+    // Helper method to turn a service error into the usual error body
+    private ResponseEntity<Map<String, Object>> resumableError(ResponseStatusException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getReason());
+        return ResponseEntity.status(e.getStatusCode()).header("Tus-Resumable", TUS_VERSION).body(errorResponse);
+    }
+
+    // Helper method to parse tus Upload-Metadata: "key base64value,key base64value"
+    private Map<String, String> parseUploadMetadata(String header) {
+        Map<String, String> metadata = new HashMap<>();
+        if (header == null || header.isBlank()) {
+            return metadata;
+        }
+        for (String pair : header.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            try {
+                String value = parts.length > 1
+                        ? new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8)
+                        : "";
+                metadata.put(parts[0], value);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Upload-Metadata");
+            }
+        }
+        return metadata;
+    }
 }
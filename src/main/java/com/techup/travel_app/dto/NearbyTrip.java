@@ -0,0 +1,12 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A trip list entry from a nearby search: the usual TripSummary fields plus
+ * the distance from the searched point.
+ */
+public record NearbyTrip(
+        @JsonUnwrapped TripSummary trip,
+        double distanceKm) {
+}
@@ -0,0 +1,123 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resized copies of one uploaded photo, generated in the background after upload.
+ * Stored per trip as a JSON map of original photo URL to variants.
+ *
+ * @param small 320px wide, for cards and lists
+ * @param medium 800px wide, for the detail page
+ * @param large 1600px wide, for full-screen viewing
+ * @param placeholder Tiny JPEG data URI to show (blurred) while the real image loads
+ */
+public record PhotoVariants(String small, String medium, String large, String placeholder) {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoVariants.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, PhotoVariants>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Parse the variants of a single photo
+     * @param json The stored JSON, may be null
+     * @return The variants, or null if none or unreadable
+     */
+    public static PhotoVariants parse(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, PhotoVariants.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable photo variants: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Variants of one photo from the photo_variants column. Only that entry is
+     * bound; the rest of the JSON is skipped without building the whole map.
+     * @param json The stored JSON, may be null
+     * @param photoUrl The original photo URL
+     * @return The variants, or null if none or unreadable
+     */
+    public static PhotoVariants parseEntry(String json, String photoUrl) {
+        if (json == null || json.isBlank() || photoUrl == null) {
+            return null;
+        }
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (photoUrl.equals(name)) {
+                    return parser.currentToken() == JsonToken.START_OBJECT ? MAPPER.readValue(parser, PhotoVariants.class) : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable photo variants: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Serialize these variants on their own
+     * @return The JSON
+     */
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize photo variants", e);
+        }
+    }
+
+    /**
+     * Parse the photo_variants column
+     * @param json The stored JSON, may be null
+     * @return Variants keyed by original photo URL (empty if none or unreadable)
+     */
+    public static Map<String, PhotoVariants> parseMap(String json) {
+        if (json == null || json.isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable photo variants: {}", e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Serialize variants for the photo_variants column
+     * @param variants Variants keyed by original photo URL
+     * @return The JSON, or null if there are none
+     */
+    public static String toJson(Map<String, PhotoVariants> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(variants);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize photo variants", e);
+        }
+    }
+}
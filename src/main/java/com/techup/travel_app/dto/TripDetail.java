@@ -0,0 +1,89 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Full trip payload for the detail page and for create/update responses.
+ */
+@JsonPropertyOrder({"id", "title", "description", "photos", "tags", "latitude", "longitude",
+        "location", "province", "locationLink", "createdAt", "updatedAt", "author", "photoVariants"})
+public record TripDetail(
+        Long id,
+        String title,
+        String description,
+        String[] photos,
+        String[] tags,
+        Double latitude,
+        Double longitude,
+        String location,
+        String province,
+        String locationLink,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Author author,
+        Map<String, PhotoVariants> photoVariants) {
+
+    // Legacy trips without author
+    private static final Author LEGACY_AUTHOR = new Author(null, "Travel Blogger", "blogger@example.com");
+
+    /**
+     * Author information used for ownership checks
+     */
+    public record Author(Long id, String displayName, String email) {
+    }
+
+    // Used by the reactive read repository: raw column values straight from the query
+    public TripDetail(Long id, String title, String description, String[] photos, String[] tags,
+                      Double latitude, Double longitude, String location, String province, String locationLink,
+                      LocalDateTime createdAt, LocalDateTime updatedAt,
+                      Long authorId, String authorName, String authorEmail, String photoVariants) {
+        this(id, title, description, photos, tags,
+                latitude, longitude, location, Trip.resolveProvince(province, tags), locationLink,
+                createdAt, updatedAt,
+                authorId != null ? new Author(authorId, authorName, authorEmail) : LEGACY_AUTHOR,
+                currentVariants(photos, photoVariants));
+    }
+
+    public static TripDetail from(Trip trip) {
+        User author = trip.getAuthor();
+        return new TripDetail(
+                trip.getId(),
+                trip.getTitle(),
+                trip.getDescription(), // Full description
+                trip.getPhotosArray(),
+                trip.getTagsArray(),
+                trip.getLatitude(),
+                trip.getLongitude(),
+                trip.getLocation(),
+                trip.getProvince(),
+                trip.getLocationLink(),
+                trip.getCreatedAt(),
+                trip.getUpdatedAt(),
+                author != null
+                        ? new Author(author.getId(), author.getDisplayName(), author.getEmail())
+                        : LEGACY_AUTHOR,
+                currentVariants(trip.getPhotosArray(), trip.getPhotoVariants()));
+    }
+
+    // Variants of the photos the trip still shows, keyed by photo URL
+    private static Map<String, PhotoVariants> currentVariants(String[] photos, String photoVariants) {
+        Map<String, PhotoVariants> stored = PhotoVariants.parseMap(photoVariants);
+        Map<String, PhotoVariants> current = new LinkedHashMap<>();
+        if (photos == null) {
+            return current;
+        }
+        for (String photo : photos) {
+            PhotoVariants variants = stored.get(photo);
+            if (variants != null) {
+                current.put(photo, variants);
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,49 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.techup.travel_app.entity.Trip;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the NDJSON trip export/import. Holds the stored column values
+ * only (province is the raw column, not the tag guess), so an export can be
+ * imported again without losing anything the trip's author entered.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"id", "title", "description", "photos", "tags", "latitude", "longitude",
+        "location", "province", "locationLink", "authorId", "createdAt", "updatedAt"})
+public record TripRecord(
+        Long id,
+        String title,
+        String description,
+        String[] photos,
+        String[] tags,
+        Double latitude,
+        Double longitude,
+        String location,
+        String province,
+        String locationLink,
+        Long authorId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static TripRecord from(Trip trip) {
+        return new TripRecord(
+                trip.getId(),
+                trip.getTitle(),
+                trip.getDescription(),
+                trip.getPhotosArray(),
+                trip.getTagsArray(),
+                trip.getLatitude(),
+                trip.getLongitude(),
+                trip.getLocation(),
+                trip.hasProvince() ? trip.getProvince() : null,
+                trip.getLocationLink(),
+                // Reading the id of the lazy author does not load the user
+                trip.getAuthor() != null ? trip.getAuthor().getId() : null,
+                trip.getCreatedAt(),
+                trip.getUpdatedAt());
+    }
+}
@@ -0,0 +1,70 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.techup.travel_app.entity.Trip;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for trip lists (feed, search and "my trips").
+ * Built directly by the JPQL constructor expressions in TripRepository, so a
+ * whole page is one SQL statement with the author joined in and only the
+ * first 121 characters of the description loaded. coverVariants is null until
+ * the background resize of the cover photo has finished.
+ */
+@JsonPropertyOrder({"id", "title", "description", "coverImage", "coverVariants", "province", "tags", "photos",
+        "location", "locationLink", "createdAt", "updatedAt", "authorId", "authorName"})
+public record TripSummary(
+        Long id,
+        String title,
+        String description,
+        String province,
+        String[] tags,
+        String[] photos,
+        String location,
+        String locationLink,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long authorId,
+        String authorName,
+        PhotoVariants coverVariants) {
+
+    // Column length the queries load for the description; one more than the display limit
+    public static final int DESCRIPTION_PREFIX_LENGTH = 121;
+
+    public TripSummary {
+        if (tags == null) tags = new String[0];
+        if (photos == null) photos = new String[0];
+        province = Trip.resolveProvince(province, tags);
+        if (authorId == null) {
+            // Legacy trips without author
+            authorName = "Travel Blogger";
+        }
+    }
+
+    // Used by the JPQL constructor expressions: raw column values straight from the query
+    public TripSummary(Long id, String title, String descriptionPrefix, String[] photos, String[] tags,
+                       String location, String province, String locationLink,
+                       LocalDateTime createdAt, LocalDateTime updatedAt,
+                       Long authorId, String authorName, String photoVariants) {
+        this(id, title, Trip.shortDescription(descriptionPrefix), province,
+                tags, photos, location, locationLink, createdAt, updatedAt, authorId, authorName,
+                coverVariants(photos, photoVariants));
+    }
+
+    // Variants of the cover photo, if the background resize has finished for it. Lists only
+    // show the cover, so only its entry is read, not the variants of every photo
+    private static PhotoVariants coverVariants(String[] photos, String photoVariants) {
+        if (photos == null || photos.length == 0 || photoVariants == null) {
+            return null;
+        }
+        return PhotoVariants.parseEntry(photoVariants, photos[0]);
+    }
+
+    // First photo as cover image
+    @JsonProperty("coverImage")
+    public String coverImage() {
+        return photos.length > 0 ? photos[0] : null;
+    }
+}
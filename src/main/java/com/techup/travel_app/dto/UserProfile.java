@@ -0,0 +1,36 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.techup.travel_app.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * User profile payload for GET and PUT /api/auth/me (the demo user's stub
+ * responses are built separately). role and totalTrips are only sent by GET,
+ * so they are left out when null.
+ */
+@JsonPropertyOrder({"id", "email", "name", "displayName", "profileImage", "role", "createdAt", "totalTrips"})
+public record UserProfile(
+        Long id,
+        String email,
+        String name,
+        String displayName,
+        String profileImage,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String role,
+        LocalDateTime createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer totalTrips) {
+
+    // Profile as returned by GET /me
+    public static UserProfile withRole(User user, int totalTrips) {
+        return new UserProfile(user.getId(), user.getEmail(), user.getName(), user.getDisplayName(),
+                user.getProfileImage(), "USER", user.getCreatedAt(), totalTrips);
+    }
+
+    // Profile as returned by PUT /me
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getId(), user.getEmail(), user.getName(), user.getDisplayName(),
+                user.getProfileImage(), null, user.getCreatedAt(), null);
+    }
+}
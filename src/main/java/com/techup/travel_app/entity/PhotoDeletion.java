@@ -0,0 +1,51 @@
+package com.techup.travel_app.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A photo that was removed from a trip, or uploaded and not attached yet, and
+ * should be deleted from storage once it is due and no trip references it.
+ * Failed deletes stay in the table and are retried with backoff.
+ */
+@Entity
+@Table(name = "photo_deletions")
+@Data
+@NoArgsConstructor
+public class PhotoDeletion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Public URL of the original photo
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String url;
+    
+    // Comma-separated URLs of its resized variants, deleted together with it
+    @Column(name = "variant_urls", columnDefinition = "TEXT")
+    private String variantUrls;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    public PhotoDeletion(String url, String variantUrls, LocalDateTime nextAttemptAt) {
+        this.url = url;
+        this.variantUrls = variantUrls;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
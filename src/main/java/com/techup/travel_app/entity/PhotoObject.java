@@ -0,0 +1,39 @@
+package com.techup.travel_app.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored photo, keyed by the SHA-256 of its bytes. The same file uploaded
+ * again (form re-submits, the same photo on two trips) maps to this row and
+ * is not sent to storage a second time.
+ */
+@Entity
+@Table(name = "photo_objects")
+@Data
+@NoArgsConstructor
+public class PhotoObject {
+    
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(nullable = false, unique = true, columnDefinition = "TEXT")
+    private String url;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    // PhotoVariants JSON once ImageVariantService has resized this photo
+    @Column(columnDefinition = "TEXT")
+    private String variants;
+    
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,13 +1,17 @@
 package com.techup.travel_app.entity;
 
+import com.techup.travel_app.util.ProvinceResolver;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "trips")
@@ -16,8 +20,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Trip {
     
+    private static final String[] EMPTY = new String[0];
+    
+    // Pooled sequence (V8): ids are reserved 50 at a time, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trips_id_seq")
+    @SequenceGenerator(name = "trips_id_seq", sequenceName = "trips_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -26,11 +34,15 @@ public class Trip {
     @Column(columnDefinition = "TEXT")
     private String description;
     
-    @Column(name = "photos", columnDefinition = "TEXT")
-    private String photos;
+    // Native text[] columns: the driver decodes them once per load, so the
+    // accessors below hand out the same array instead of re-parsing a string
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "photos", columnDefinition = "TEXT[]", nullable = false)
+    private String[] photos = EMPTY;
     
-    @Column(name = "tags", columnDefinition = "TEXT") 
-    private String tags;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tags", columnDefinition = "TEXT[]", nullable = false)
+    private String[] tags = EMPTY;
     
     @Column(name = "location")
     private String location;
@@ -41,6 +53,10 @@ public class Trip {
     @Column(name = "location_link", columnDefinition = "TEXT")
     private String locationLink;
     
+    // JSON written only by ImageVariantService, so entity saves never overwrite it with a stale copy
+    @Column(name = "photo_variants", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String photoVariants;
+    
     @Column
     private Double latitude;
     
@@ -51,8 +67,8 @@ public class Trip {
     @JoinColumn(name = "author_id")
     private User author;
     
-    @CreationTimestamp
-    @Column(name = "created_at")
+    // Set on insert (see onInsert) unless an import brings the original time along
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
     @UpdateTimestamp
@@ -61,36 +77,56 @@ public class Trip {
     
     // Helper method to get the first photo as cover image
     public String getCoverImage() {
-        String[] photoArray = parseArrayString(photos);
-        return photoArray.length > 0 ? photoArray[0] : null;
+        return photos.length > 0 ? photos[0] : null;
     }
     
     // Helper method to get province/region (now uses direct field)
     public String getProvince() {
+        return resolveProvince(province, tags);
+    }
+    
+    // Whether the province column itself is set (getProvince() falls back to the tags)
+    public boolean hasProvince() {
+        return province != null && !province.trim().isEmpty();
+    }
+    
+    @PrePersist
+    void onInsert() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+    
+    // Helper method to get short description (max 120 characters)
+    public String getShortDescription() {
+        return shortDescription(description);
+    }
+    
+    // Province column if set, otherwise guess from tags for display. The guess is never
+    // stored: writers only store what ProvinceLocator.resolve actually matched
+    public static String resolveProvince(String province, String[] tagArray) {
         if (province != null && !province.trim().isEmpty()) {
             return province;
         }
         
         // Fallback: try to extract from tags for legacy data
-        String[] tagArray = parseArrayString(tags);
-        if (tagArray.length == 0) return null;
+        if (tagArray == null || tagArray.length == 0) return null;
         
-        // Look for province-like tags (usually the last tag in Thai locations)
-        for (String tag : tagArray) {
-            // Thai provinces or countries
-            if (tag.matches(".*(?:จังหวัด|ตราด|ชลบุรี|กาญจนบุรี|เชียงใหม่|สตูล|กรุงเทพมหานคร|ไต้หวัน|ญี่ปุ่น|ฝรั่งเศส|ฟินแลนด์).*")) {
-                return tag;
-            }
+        // Look for a tag naming a province or country
+        String name = ProvinceResolver.find(tagArray);
+        if (name != null) {
+            return name;
         }
         
         // Fallback to last tag
         return tagArray[tagArray.length - 1];
     }
     
-    // Helper method to parse PostgreSQL array string format like {item1,item2,item3}
-    private String[] parseArrayString(String arrayStr) {
+    // Helper method to parse the legacy string formats "{item1,item2}" and "item1,item2".
+    // Same rules as the V7 migration: items are trimmed and empty items dropped.
+    public static String[] parseArrayString(String arrayStr) {
         if (arrayStr == null || arrayStr.trim().isEmpty()) {
-            return new String[0];
+            return EMPTY;
         }
         
         // Remove curly braces and split by comma
@@ -99,15 +135,19 @@ public class Trip {
             cleanStr = cleanStr.substring(1, cleanStr.length() - 1);
         }
         
-        if (cleanStr.isEmpty()) {
-            return new String[0];
+        List<String> items = new ArrayList<>();
+        for (String item : cleanStr.split(",")) {
+            String trimmed = item.trim();
+            if (!trimmed.isEmpty()) {
+                items.add(trimmed);
+            }
         }
-        
-        return cleanStr.split(",");
+        return items.toArray(EMPTY);
     }
     
-    // Helper method to get short description (max 120 characters)
-    public String getShortDescription() {
+    // Truncate a description to at most 120 characters, preferring a word boundary.
+    // Only the first 121 characters are looked at, so callers may pass a prefix.
+    public static String shortDescription(String description) {
         if (description == null) return null;
         if (description.length() <= 120) return description;
         
@@ -121,36 +161,38 @@ public class Trip {
         return truncated + "...";
     }
     
-    // Utility methods for array handling (PostgreSQL array strings)
+    // Utility methods for array handling. The arrays are shared with the entity, treat them as read-only.
     public String[] getPhotosArray() {
-        return parseArrayString(photos);
+        return photos;
     }
     
-    // Helper method for String input (convert to PostgreSQL array string)
+    // Helper method for comma-separated input (parsed once, here)
     public void setPhotos(String photosString) {
-        this.photos = photosString;
+        this.photos = parseArrayString(photosString);
     }
     
-    // Standard array setter (convert array to PostgreSQL string format)
     public void setPhotos(String[] photosArray) {
-        this.photos = photosArray != null && photosArray.length > 0 
-            ? "{" + String.join(",", photosArray) + "}"
-            : "{}";
+        this.photos = photosArray != null ? photosArray : EMPTY;
+    }
+    
+    public void setPhotos(List<String> photosList) {
+        this.photos = photosList != null ? photosList.toArray(EMPTY) : EMPTY;
     }
     
     public String[] getTagsArray() {
-        return parseArrayString(tags);
+        return tags;
     }
     
-    // Helper method for String input (convert to PostgreSQL array string)
+    // Helper method for comma-separated input (parsed once, here)
     public void setTags(String tagsString) {
-        this.tags = tagsString;
+        this.tags = parseArrayString(tagsString);
     }
     
-    // Standard array setter (convert array to PostgreSQL string format)
     public void setTags(String[] tagsArray) {
-        this.tags = tagsArray != null && tagsArray.length > 0 
-            ? "{" + String.join(",", tagsArray) + "}"
-            : "{}";
+        this.tags = tagsArray != null ? tagsArray : EMPTY;
+    }
+    
+    public void setTags(List<String> tagsList) {
+        this.tags = tagsList != null ? tagsList.toArray(EMPTY) : EMPTY;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.techup.travel_app.repository;
+
+import com.techup.travel_app.entity.PhotoDeletion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PhotoDeletionRepository extends JpaRepository<PhotoDeletion, Long> {
+    
+    // Oldest entries that are due and have not used up their retries
+    @Query("SELECT d FROM PhotoDeletion d WHERE d.nextAttemptAt <= :now AND d.attempts < :maxAttempts " +
+           "ORDER BY d.nextAttemptAt, d.id")
+    List<PhotoDeletion> findDue(@Param("now") LocalDateTime now,
+                                @Param("maxAttempts") int maxAttempts,
+                                Limit limit);
+}
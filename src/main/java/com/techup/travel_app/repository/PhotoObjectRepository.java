@@ -0,0 +1,56 @@
+package com.techup.travel_app.repository;
+
+import com.techup.travel_app.entity.PhotoObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PhotoObjectRepository extends JpaRepository<PhotoObject, String> {
+    
+    Optional<PhotoObject> findByUrl(String url);
+    
+    // Two requests may upload the same new file at once; the first insert wins
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO photo_objects (content_hash, url, size_bytes, content_type) " +
+           "VALUES (:hash, :url, :size, :contentType) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+                       @Param("url") String url,
+                       @Param("size") long size,
+                       @Param("contentType") String contentType);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PhotoObject p SET p.variants = :variants WHERE p.url = :url")
+    int updateVariants(@Param("url") String url, @Param("variants") String variants);
+    
+    // An upload reusing a stored file holds it until then; 0 if the cleanup has just deleted it.
+    // Waits on the row lock of lockByUrlIn, so it never reports a file that is being deleted
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE photo_objects SET reserved_until = GREATEST(reserved_until, :until) " +
+           "WHERE content_hash = :hash",
+           nativeQuery = true)
+    int reserve(@Param("hash") String hash, @Param("until") LocalDateTime until);
+    
+    // Url and reserved_until of objects about to be deleted, locked until the deleting transaction ends
+    @Query(value = "SELECT url, reserved_until FROM photo_objects WHERE url IN (:urls) FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockByUrlIn(@Param("urls") Collection<String> urls);
+    
+    // Forget deleted objects so later uploads of the same file store it again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PhotoObject p WHERE p.url IN :urls")
+    int deleteByUrlIn(@Param("urls") Collection<String> urls);
+}
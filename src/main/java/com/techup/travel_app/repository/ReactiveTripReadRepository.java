@@ -0,0 +1,133 @@
+package com.techup.travel_app.repository;
+
+import com.techup.travel_app.config.ReactiveDatabaseConfig;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Non-blocking reads of the trips and users tables over R2DBC. The queries are
+ * the SQL twins of the JPQL read models in TripRepository, so both paths return
+ * the same TripSummary and TripDetail payloads. Rows are emitted as they are
+ * decoded and only as fast as the subscriber requests them.
+ */
+@Repository
+@Conditional(ReactiveDatabaseConfig.Enabled.class)
+public class ReactiveTripReadRepository {
+
+    private static final String SUMMARY_SELECT = "SELECT t.id, t.title, " +
+            "SUBSTRING(t.description, 1, " + TripSummary.DESCRIPTION_PREFIX_LENGTH + ") AS description_prefix, " +
+            "t.photos, t.tags, t.location, t.province, t.location_link, t.created_at, t.updated_at, " +
+            "a.id AS author_id, a.display_name AS author_name, t.photo_variants " +
+            "FROM trips t LEFT JOIN users a ON a.id = t.author_id ";
+
+    private static final String FEED_ORDER = "ORDER BY t.created_at DESC, t.id DESC ";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    // Keyset feed: first page, newest first with id as tie-breaker
+    public Flux<TripSummary> findFeed(int limit) {
+        return reactiveDatabaseClient.sql(SUMMARY_SELECT + FEED_ORDER + "LIMIT :limit")
+                .bind("limit", limit)
+                .map(ReactiveTripReadRepository::toSummary)
+                .all();
+    }
+
+    // Keyset feed: the page after the (createdAt, id) of the last trip already seen
+    public Flux<TripSummary> findFeedAfter(LocalDateTime createdAt, Long id, int limit) {
+        return reactiveDatabaseClient.sql(SUMMARY_SELECT +
+                        "WHERE t.created_at < :createdAt OR (t.created_at = :createdAt AND t.id < :id) " +
+                        FEED_ORDER + "LIMIT :limit")
+                .bind("createdAt", createdAt)
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactiveTripReadRepository::toSummary)
+                .all();
+    }
+
+    // The newest limit trips in keyset order; backpressure from the subscriber paces the reads
+    public Flux<TripSummary> streamFeed(int limit) {
+        return reactiveDatabaseClient.sql(SUMMARY_SELECT + FEED_ORDER + "LIMIT :limit")
+                .bind("limit", limit)
+                .map(ReactiveTripReadRepository::toSummary)
+                .all();
+    }
+
+    // Search results: summaries for a page of ids (caller restores the ranking order)
+    public Flux<TripSummary> findSummariesByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return reactiveDatabaseClient.sql(SUMMARY_SELECT + "WHERE t.id IN (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveTripReadRepository::toSummary)
+                .all();
+    }
+
+    // Detail page: every column plus the author
+    public Mono<TripDetail> findDetail(Long id) {
+        return reactiveDatabaseClient.sql("SELECT t.id, t.title, t.description, t.photos, t.tags, " +
+                        "t.latitude, t.longitude, t.location, t.province, t.location_link, t.created_at, t.updated_at, " +
+                        "a.id AS author_id, a.display_name AS author_name, a.email AS author_email, t.photo_variants " +
+                        "FROM trips t LEFT JOIN users a ON a.id = t.author_id WHERE t.id = :id")
+                .bind("id", id)
+                .map(row -> new TripDetail(
+                        row.get("id", Long.class),
+                        row.get("title", String.class),
+                        row.get("description", String.class),
+                        row.get("photos", String[].class),
+                        row.get("tags", String[].class),
+                        row.get("latitude", Double.class),
+                        row.get("longitude", Double.class),
+                        row.get("location", String.class),
+                        row.get("province", String.class),
+                        row.get("location_link", String.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class),
+                        row.get("author_id", Long.class),
+                        row.get("author_name", String.class),
+                        row.get("author_email", String.class),
+                        row.get("photo_variants", String.class)))
+                .one();
+    }
+
+    // Planner row estimate, maintained by ANALYZE/autovacuum; -1 if never analyzed
+    public Mono<Long> estimateCount() {
+        return reactiveDatabaseClient.sql("SELECT CAST(reltuples AS BIGINT) AS estimate FROM pg_class WHERE relname = 'trips'")
+                .map(row -> row.get("estimate", Long.class))
+                .one();
+    }
+
+    public Mono<Long> count() {
+        return reactiveDatabaseClient.sql("SELECT COUNT(*) AS total FROM trips")
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    private static TripSummary toSummary(Readable row) {
+        return new TripSummary(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description_prefix", String.class),
+                row.get("photos", String[].class),
+                row.get("tags", String[].class),
+                row.get("location", String.class),
+                row.get("province", String.class),
+                row.get("location_link", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("author_id", Long.class),
+                row.get("author_name", String.class),
+                row.get("photo_variants", String.class));
+    }
+}
@@ -1,32 +1,189 @@
 package com.techup.travel_app.repository;
 
+import com.techup.travel_app.dto.TripSummary;
 import com.techup.travel_app.entity.Trip;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
     
+    // List read model: one statement, author joined, description cut to a short prefix
+    String SUMMARY_SELECT = "SELECT new com.techup.travel_app.dto.TripSummary(" +
+           "t.id, t.title, SUBSTRING(t.description, 1, " + TripSummary.DESCRIPTION_PREFIX_LENGTH + "), " +
+           "t.photos, t.tags, t.location, t.province, t.locationLink, t.createdAt, t.updatedAt, " +
+           "a.id, a.displayName, t.photoVariants) " +
+           "FROM Trip t LEFT JOIN t.author a ";
+    
     // Find trips ordered by creation date (newest first)
     List<Trip> findAllByOrderByCreatedAtDesc();
     
     // Paginated trips
     Page<Trip> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
+    // Keyset feed: first page, newest first with id as tie-breaker
+    @Query(SUMMARY_SELECT + "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripSummary> findFeed(Limit limit);
+    
+    // Keyset feed: the page after the (createdAt, id) of the last trip already seen
+    @Query(SUMMARY_SELECT + "WHERE t.createdAt < :createdAt " +
+           "OR (t.createdAt = :createdAt AND t.id < :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripSummary> findFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Limit limit);
+    
+    // OFFSET paging over the list read model
+    @Query(value = SUMMARY_SELECT + "ORDER BY t.createdAt DESC, t.id DESC",
+           countQuery = "SELECT COUNT(t) FROM Trip t")
+    Page<TripSummary> findSummaryPage(Pageable pageable);
+    
+    // Search results: summaries for a page of ids (caller restores the ranking order)
+    @Query(SUMMARY_SELECT + "WHERE t.id IN :ids")
+    List<TripSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // "My trips" list
+    @Query(SUMMARY_SELECT + "WHERE a.id = :authorId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripSummary> findSummariesByAuthorId(@Param("authorId") Long authorId);
+    
+    // Planner row estimate, maintained by ANALYZE/autovacuum; -1 if never analyzed
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'trips'",
+           nativeQuery = true)
+    Long estimateCount();
+    
     // Search for PostgreSQL with Unicode and multilingual support
-    @Query("SELECT t FROM Trip t WHERE " +
+    @Query(value = "SELECT t.id FROM Trip t WHERE " +
+           "UPPER(t.title) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
+           "UPPER(t.description) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
+           "UPPER(t.location) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
+           "UPPER(t.province) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
+           "UPPER(array_to_string(t.tags, ',')) LIKE UPPER(CONCAT('%', :query, '%')) " +
+           "ORDER BY t.createdAt DESC",
+           countQuery = "SELECT COUNT(t) FROM Trip t WHERE " +
            "UPPER(t.title) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
            "UPPER(t.description) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
            "UPPER(t.location) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
            "UPPER(t.province) LIKE UPPER(CONCAT('%', :query, '%')) OR " +
-           "UPPER(t.tags) LIKE UPPER(CONCAT('%', :query, '%'))")
-    List<Trip> searchByTitleOrTags(@Param("query") String query);
+           "UPPER(array_to_string(t.tags, ',')) LIKE UPPER(CONCAT('%', :query, '%'))")
+    Page<Long> searchByTitleOrTags(@Param("query") String query, Pageable pageable);
+    
+    // Full-text + trigram search (PostgreSQL only). :terms is the query already
+    // segmented into words by the app, :pattern is an escaped ILIKE pattern.
+    @Query(value = "SELECT t.id FROM trips t WHERE " +
+           "t.search_vector @@ plainto_tsquery('simple', :terms) OR " +
+           "t.title ILIKE :pattern OR t.location ILIKE :pattern OR " +
+           "t.province ILIKE :pattern OR trips_tags_text(t.tags) ILIKE :pattern OR " +
+           "t.description ILIKE :pattern " +
+           "ORDER BY ts_rank(t.search_vector, plainto_tsquery('simple', :terms)) " +
+           "+ similarity(t.title, :query) DESC, t.created_at DESC, t.id DESC",
+           countQuery = "SELECT COUNT(*) FROM trips t WHERE " +
+           "t.search_vector @@ plainto_tsquery('simple', :terms) OR " +
+           "t.title ILIKE :pattern OR t.location ILIKE :pattern OR " +
+           "t.province ILIKE :pattern OR trips_tags_text(t.tags) ILIKE :pattern OR " +
+           "t.description ILIKE :pattern",
+           nativeQuery = true)
+    Page<Long> fullTextSearch(@Param("query") String query,
+                              @Param("terms") String terms,
+                              @Param("pattern") String pattern,
+                              Pageable pageable);
+    
+    // Keep the tsvector column in sync; title words are weighted higher than the rest
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE trips SET search_vector = " +
+           "setweight(to_tsvector('simple', :titleTerms), 'A') || " +
+           "setweight(to_tsvector('simple', :bodyTerms), 'B') " +
+           "WHERE id = :id",
+           nativeQuery = true)
+    int updateSearchVector(@Param("id") Long id,
+                           @Param("titleTerms") String titleTerms,
+                           @Param("bodyTerms") String bodyTerms);
+    
+    // updateSearchVector for a whole batch in one statement; the three arrays line up by index
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE trips t SET search_vector = " +
+           "setweight(to_tsvector('simple', v.title_terms), 'A') || " +
+           "setweight(to_tsvector('simple', v.body_terms), 'B') " +
+           "FROM unnest(CAST(:ids AS BIGINT[]), CAST(:titleTerms AS TEXT[]), CAST(:bodyTerms AS TEXT[])) " +
+           "AS v(id, title_terms, body_terms) " +
+           "WHERE t.id = v.id",
+           nativeQuery = true)
+    int updateSearchVectors(@Param("ids") Long[] ids,
+                            @Param("titleTerms") String[] titleTerms,
+                            @Param("bodyTerms") String[] bodyTerms);
+    
+    // Rows written before the search_vector column existed
+    @Query(value = "SELECT id FROM trips WHERE search_vector IS NULL ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findIdsWithoutSearchVector(@Param("limit") int limit);
+    
+    // Current photos and variant JSON, read fresh before merging in new variants
+    @Query("SELECT t.photos, t.photoVariants FROM Trip t WHERE t.id = :id")
+    List<Object[]> findPhotosAndVariants(@Param("id") Long id);
+    
+    // Only writer of photo_variants (the entity maps it read-only). Bumps updated_at because
+    // the detail ETag is built from it, so clients revalidating see the new variants
+    // (updatedAt comes from the JVM clock, like @UpdateTimestamp)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE trips SET photo_variants = :variants, updated_at = :updatedAt WHERE id = :id",
+           nativeQuery = true)
+    int updatePhotoVariants(@Param("id") Long id,
+                            @Param("variants") String variants,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Whether any trip still shows this photo (the same stored file can be on several trips)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM trips WHERE photos @> ARRAY[CAST(:url AS TEXT)])", nativeQuery = true)
+    boolean isPhotoReferenced(@Param("url") String url);
+    
+    // Coordinates of every placed trip, for building TripGeoIndex
+    @Query("SELECT t.id, t.latitude, t.longitude FROM Trip t " +
+           "WHERE t.latitude IS NOT NULL AND t.longitude IS NOT NULL")
+    List<Object[]> findCoordinates();
+    
+    // Legacy rows without a stored province, in id order (see ProvinceBackfillService)
+    @Query("SELECT t.id, t.tags, t.latitude, t.longitude FROM Trip t " +
+           "WHERE (t.province IS NULL OR TRIM(t.province) = '') " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findWithoutProvince(@Param("afterId") Long afterId, Limit limit);
+    
+    // Leaves the row alone if someone set the province in the meantime; updated_at is not touched
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE trips SET province = :province WHERE id = :id " +
+           "AND (province IS NULL OR btrim(province) = '')",
+           nativeQuery = true)
+    int fillProvince(@Param("id") Long id, @Param("province") String province);
+    
+    // Rows per round trip when streaming the whole table
+    String EXPORT_FETCH_SIZE = "500";
+    
+    // Whole catalog for the NDJSON export. Must run inside a transaction: only then does
+    // the PostgreSQL driver read through a cursor instead of loading every row at once.
+    // Read-only entities keep no dirty-checking snapshot in the persistence context.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Trip t ORDER BY t.id")
+    Stream<Trip> streamAllForExport();
     
     // Find trips by author
     List<Trip> findByAuthorIdOrderByCreatedAtDesc(Long authorId);
@@ -0,0 +1,213 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.PhotoObject;
+import com.techup.travel_app.repository.PhotoObjectRepository;
+import com.techup.travel_app.util.FileNames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Direct-to-storage photo uploads. The app hands out short-lived signed upload
+ * URLs, the browser sends the bytes straight to storage, and a small confirm
+ * call attaches the stored objects to the trip. Photo bytes never pass through
+ * the JVM. Each signed upload comes with a ticket (user, object, expiry signed
+ * with UploadSigner), so confirming needs no server-side state. Signed objects
+ * are queued with PhotoCleanupService, which deletes the ones no trip shows
+ * after their tickets expire.
+ */
+@Service
+public class DirectUploadService {
+
+    @Value("${trip.direct-upload.max-files:20}")
+    private int maxFiles;
+
+    @Value("${trip.direct-upload.max-file-size:25MB}")
+    private DataSize maxFileSize;
+
+    @Value("${trip.direct-upload.ttl:1h}")
+    private Duration ttl;
+
+    @Autowired
+    private PhotoStorage photoStorage;
+
+    @Autowired
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Autowired
+    private UploadSigner uploadSigner;
+
+    @Autowired
+    private PhotoCleanupService photoCleanupService;
+
+    /**
+     * A photo the client wants to upload
+     * @param fileName Original file name
+     * @param contentType MIME type, must be an image type
+     * @param size Size in bytes
+     * @param sha256 Optional hex SHA-256 of the file; lets already-stored photos skip the upload
+     */
+    public record FileSpec(String fileName, String contentType, Long size, String sha256) {
+    }
+
+    /**
+     * Where and how to upload one photo
+     * @param index Position of the photo in the request
+     * @param ticket Pass to confirm once the upload has finished
+     * @param alreadyStored True if the file is already in storage and need not be uploaded
+     * @param upload The signed upload, or null if alreadyStored
+     * @param url Public URL the photo will have
+     */
+    public record PreparedUpload(int index, String ticket, boolean alreadyStored, PhotoStorage.SignedUpload upload, String url) {
+    }
+
+    /**
+     * Sign uploads for a batch of photos
+     * @param userId The uploading user
+     * @param files The photos to upload
+     * @return One prepared upload per file, in order
+     * @throws IllegalArgumentException if the batch or a file is not acceptable
+     * @throws org.springframework.web.server.ResponseStatusException 503 if no signing key is configured
+     */
+    public List<PreparedUpload> prepare(Long userId, List<FileSpec> files) {
+        uploadSigner.requireKey();
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files to upload");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " photos can be uploaded at once");
+        }
+
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        List<PreparedUpload> prepared = new ArrayList<>(files.size());
+        List<String> pendingUrls = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            FileSpec file = files.get(i);
+            validate(i, file);
+
+            Optional<PhotoObject> stored = findStored(file.sha256(), Instant.ofEpochSecond(expires));
+            if (stored.isPresent()) {
+                String objectName = photoStorage.objectNameFromUrl(stored.get().getUrl());
+                prepared.add(new PreparedUpload(i, ticket(userId, objectName, expires), true, null, stored.get().getUrl()));
+                continue;
+            }
+
+            String objectName = "u" + UUID.randomUUID().toString().replace("-", "") + FileNames.extension(file.fileName());
+            PhotoStorage.SignedUpload upload = photoStorage.createSignedUpload(objectName, file.contentType(), file.size(), ttl);
+            String url = photoStorage.publicUrl(objectName);
+            prepared.add(new PreparedUpload(i, ticket(userId, objectName, expires), false, upload, url));
+            pendingUrls.add(url);
+        }
+        // Uploaded but never confirmed objects would otherwise stay in storage forever
+        photoCleanupService.enqueueUnattached(pendingUrls, Instant.ofEpochSecond(expires));
+        return prepared;
+    }
+
+    /**
+     * Check upload tickets and return the URLs of the uploaded photos
+     * @param userId The confirming user
+     * @param tickets Tickets from prepare, for uploads that have finished
+     * @return Public URLs of the photos, in ticket order
+     * @throws IllegalArgumentException if a ticket is invalid, expired, someone else's, or its upload is missing
+     */
+    public List<String> confirm(Long userId, List<String> tickets) {
+        if (tickets == null || tickets.isEmpty()) {
+            throw new IllegalArgumentException("No uploads to confirm");
+        }
+        if (tickets.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " photos can be confirmed at once");
+        }
+
+        List<String> urls = new ArrayList<>(tickets.size());
+        for (String ticket : tickets) {
+            String objectName = objectNameFromTicket(userId, ticket);
+            if (!photoStorage.exists(objectName)) {
+                throw new IllegalArgumentException("Photo " + objectName + " has not been uploaded");
+            }
+            urls.add(photoStorage.publicUrl(objectName));
+        }
+        return urls;
+    }
+
+    private void validate(int index, FileSpec file) {
+        if (file == null || file.contentType() == null || !file.contentType().startsWith("image/")) {
+            throw new IllegalArgumentException("File " + index + " is not an image");
+        }
+        if (file.size() == null || file.size() <= 0 || file.size() > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("File " + index + " must be between 1 byte and " + maxFileSize.toMegabytes() + "MB");
+        }
+    }
+
+    // Photos are stored content-addressed, so a known hash means the bytes are already there;
+    // reserved until the ticket expires so the photo cleanup keeps them until then
+    private Optional<PhotoObject> findStored(String sha256, Instant attachBy) {
+        if (sha256 == null || !sha256.matches("[0-9a-fA-F]{64}")) {
+            return Optional.empty();
+        }
+        return photoObjectRepository.findById(sha256.toLowerCase(Locale.ROOT))
+                .filter(stored -> photoCleanupService.reserveStored(stored.getContentHash(), attachBy));
+    }
+
+    /**
+     * Ticket for a photo that reached storage some other way (e.g. a resumable upload),
+     * so it can be attached to a trip with the same confirm call
+     * @param userId The uploading user
+     * @param objectName The stored object
+     * @return A ticket valid for the direct upload TTL
+     */
+    public String issueTicket(Long userId, String objectName) {
+        return ticket(userId, objectName, Instant.now().plus(ttl).getEpochSecond());
+    }
+
+    /**
+     * When a ticket issued at the given time stops being accepted
+     * @param issuedAt When the ticket is issued
+     * @return The ticket's expiry
+     */
+    public Instant ticketExpiry(Instant issuedAt) {
+        return issuedAt.plus(ttl);
+    }
+
+    // Ticket format: base64url("<userId>|<objectName>|<expires>") + "." + signature
+    private String ticket(Long userId, String objectName, long expires) {
+        String payload = userId + "|" + objectName + "|" + expires;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + uploadSigner.sign(payload);
+    }
+
+    private String objectNameFromTicket(Long userId, String ticket) {
+        int dot = ticket != null ? ticket.indexOf('.') : -1;
+        if (dot < 0) {
+            throw new IllegalArgumentException("Invalid upload ticket");
+        }
+
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(ticket.substring(0, dot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid upload ticket", e);
+        }
+        String[] parts = payload.split("\\|");
+        if (parts.length != 3 || !uploadSigner.verify(payload, ticket.substring(dot + 1))) {
+            throw new IllegalArgumentException("Invalid upload ticket");
+        }
+        if (!parts[0].equals(String.valueOf(userId))) {
+            throw new IllegalArgumentException("Upload ticket belongs to another user");
+        }
+        if (Instant.now().getEpochSecond() > Long.parseLong(parts[2])) {
+            throw new IllegalArgumentException("Upload ticket has expired");
+        }
+        return parts[1];
+    }
+}
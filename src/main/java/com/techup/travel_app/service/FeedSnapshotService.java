@@ -0,0 +1,159 @@
+package com.techup.travel_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable snapshot of the first pages of the public feed, kept as ready-to-send
+ * JSON bytes plus a gzip variant, each with a strong ETag. The feed is the same
+ * for every anonymous visitor, so it is queried and serialized once per write
+ * instead of once per request.
+ */
+@Service
+public class FeedSnapshotService {
+
+    @Value("${trip.feed.snapshot.page-size:12}")
+    private int pageSize;
+
+    @Value("${trip.feed.snapshot.pages:3}")
+    private int pageCount;
+
+    @Autowired
+    private TripFeedService tripFeedService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    // Bumped on every write so a rebuild that raced with a write is not kept
+    private final AtomicLong version = new AtomicLong();
+
+    // A lock rather than synchronized: the rebuild queries the database, and on JDK 21 a
+    // virtual thread blocked inside synchronized pins its carrier thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * One encoding of a snapshot page
+     * @param body The bytes to send
+     * @param etag Strong ETag (quoted) for exactly these bytes
+     */
+    public record Variant(byte[] body, String etag) {
+    }
+
+    /**
+     * One feed page in every encoding we serve
+     */
+    public record SnapshotPage(Variant identity, Variant gzip) {
+    }
+
+    private record Snapshot(Map<String, SnapshotPage> pagesByCursor) {
+    }
+
+    /**
+     * Snapshot page for a feed request, if the snapshot covers it
+     * @param cursor The feed cursor (null or blank for the first page)
+     * @param size The requested page size
+     * @return The page, or null if it must be served from the database
+     */
+    public SnapshotPage find(String cursor, int size) {
+        if (size != pageSize) {
+            return null;
+        }
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = rebuild();
+        }
+        return snapshot.pagesByCursor().get(cursor == null || cursor.isBlank() ? "" : cursor);
+    }
+
+    /**
+     * Drop the snapshot; the next feed request rebuilds it. Call after every trip write.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        current.set(null);
+    }
+
+    private Snapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            Snapshot existing = current.get();
+            if (existing != null) {
+                return existing;
+            }
+
+            long startVersion = version.get();
+            Map<String, SnapshotPage> pages = new HashMap<>();
+            String cursor = null;
+            for (int i = 0; i < pageCount; i++) {
+                TripFeedService.FeedPage feed = tripFeedService.getFeed(cursor, pageSize);
+                pages.put(cursor == null ? "" : cursor, toSnapshotPage(feed));
+                cursor = feed.nextCursor();
+                if (cursor == null) break;
+            }
+
+            Snapshot snapshot = new Snapshot(Map.copyOf(pages));
+            // Only publish if no write happened while we were reading
+            if (version.get() == startVersion) {
+                current.set(snapshot);
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private SnapshotPage toSnapshotPage(TripFeedService.FeedPage feed) {
+        // Same body shape as TravelController.getAllTrips
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("trips", feed.trips());
+        response.put("total", feed.total());
+        response.put("totalEstimated", feed.totalEstimated());
+        response.put("hasMore", feed.nextCursor() != null);
+        response.put("nextCursor", feed.nextCursor());
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            String hash = sha256(json);
+            return new SnapshotPage(
+                    new Variant(json, "\"" + hash + "\""),
+                    new Variant(gzip(json), "\"" + hash + "-gzip\""));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize feed snapshot", e);
+        }
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.dto.PhotoVariants;
+import com.techup.travel_app.entity.PhotoObject;
+import com.techup.travel_app.repository.PhotoObjectRepository;
+import com.techup.travel_app.repository.TripRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates resized copies (320/800/1600px wide) and a tiny blur placeholder for
+ * every uploaded photo. Runs on a small bounded worker pool after the trip is
+ * saved, so decoding and re-encoding large images never holds up a request.
+ * Variants are re-encoded from pixels only, which drops EXIF (GPS, camera
+ * serials) from everything we serve except the original.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // Largest first: each size is scaled from the previous one
+    private static final int[] WIDTHS = {1600, 800, 320};
+    private static final int PLACEHOLDER_WIDTH = 16;
+    private static final float PLACEHOLDER_QUALITY = 0.5f;
+
+    // Images whose header claims more pixels than this are not resized at all (the original is served)
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    // Most pixels one decoded image may hold (64 MB as int RGB), however tall or wide the source is
+    private static final long MAX_DECODED_PIXELS = 16_000_000L;
+
+    @Value("${trip.images.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Autowired
+    private PhotoStorage storageService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Autowired
+    private TripCacheService tripCacheService;
+
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+
+    private final ThreadPoolExecutor executor;
+
+    // Serializes read-merge-write of the photo_variants column between workers
+    private final Object mergeLock = new Object();
+
+    // file is null for photos that are only in storage (direct uploads); the worker downloads them
+    private record StagedPhoto(String url, Path file) {
+    }
+
+    public ImageVariantService(
+            @Value("${trip.images.workers:2}") int workers,
+            @Value("${trip.images.queue-capacity:200}") int queueCapacity) {
+        int threads = Math.max(1, workers);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue variant generation for photos that were just uploaded to a trip.
+     * Only stages the files on the request thread; the work happens in the background.
+     * @param tripId The saved trip
+     * @param photos The submitted files
+     * @param uploaded The photos that were uploaded successfully
+     */
+    public void processAsync(Long tripId, MultipartFile[] photos, List<PhotoUploadService.UploadedPhoto> uploaded) {
+        if (tripId == null || photos == null || uploaded == null || uploaded.isEmpty()) {
+            return;
+        }
+
+        List<StagedPhoto> staged = new ArrayList<>();
+        Map<String, PhotoVariants> reused = new LinkedHashMap<>();
+        for (PhotoUploadService.UploadedPhoto photo : uploaded) {
+            PhotoVariants known = knownVariants(photo.url());
+            if (known != null) {
+                reused.put(photo.url(), known);
+                continue;
+            }
+
+            MultipartFile file = photos[photo.index()];
+            String contentType = file.getContentType();
+            if (contentType == null || !contentType.startsWith("image/")) {
+                continue;
+            }
+            try {
+                // The multipart temp file is deleted when the request ends; for disk-backed
+                // parts this is a rename rather than a copy
+                Path copy = Files.createTempFile("trip-photo-", ".img");
+                file.transferTo(copy.toFile());
+                staged.add(new StagedPhoto(photo.url(), copy));
+            } catch (IOException e) {
+                log.warn("Cannot stage photo for resizing {}: {}", photo.url(), e.getMessage());
+            }
+        }
+        submit(tripId, staged, reused);
+    }
+
+    /**
+     * Queue variant generation for photos that were uploaded straight to storage.
+     * The worker downloads each photo before resizing it.
+     * @param tripId The saved trip
+     * @param urls Public URLs of the new photos
+     */
+    public void processStoredAsync(Long tripId, List<String> urls) {
+        if (tripId == null || urls == null || urls.isEmpty()) {
+            return;
+        }
+
+        List<StagedPhoto> staged = new ArrayList<>();
+        Map<String, PhotoVariants> reused = new LinkedHashMap<>();
+        for (String url : urls) {
+            PhotoVariants known = knownVariants(url);
+            if (known != null) {
+                reused.put(url, known);
+            } else if (storageService.isStoredUrl(url)) {
+                staged.add(new StagedPhoto(url, null));
+            }
+        }
+        submit(tripId, staged, reused);
+    }
+
+    // A deduplicated upload may already have been resized for another trip
+    private PhotoVariants knownVariants(String url) {
+        return photoObjectRepository.findByUrl(url)
+                .map(PhotoObject::getVariants)
+                .map(PhotoVariants::parse)
+                .orElse(null);
+    }
+
+    private void submit(Long tripId, List<StagedPhoto> staged, Map<String, PhotoVariants> reused) {
+        if (staged.isEmpty() && reused.isEmpty()) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> process(tripId, staged, reused));
+        } catch (RejectedExecutionException e) {
+            // Queue full: the trip keeps working with the originals
+            log.warn("Image variant queue full, skipping trip {}", tripId);
+            staged.forEach(photo -> deleteQuietly(photo.file()));
+        }
+    }
+
+    private void process(Long tripId, List<StagedPhoto> staged, Map<String, PhotoVariants> reused) {
+        Map<String, PhotoVariants> created = new LinkedHashMap<>(reused);
+        for (StagedPhoto photo : staged) {
+            try {
+                if (photo.file() == null) {
+                    Path download = Files.createTempFile("trip-photo-", ".img");
+                    photo = new StagedPhoto(photo.url(), download);
+                    storageService.download(photo.url(), download);
+                }
+                PhotoVariants variants = createVariants(photo);
+                if (variants != null) {
+                    created.put(photo.url(), variants);
+                    photoObjectRepository.updateVariants(photo.url(), variants.toJson());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to create variants for {}: {}", photo.url(), e.getMessage());
+            } finally {
+                deleteQuietly(photo.file());
+            }
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+
+        try {
+            saveVariants(tripId, created);
+            log.debug("Saved variants for {} photo(s) of trip {}", created.size(), tripId);
+        } catch (Exception e) {
+            log.warn("Failed to save variants for trip {}: {}", tripId, e.getMessage());
+        }
+    }
+
+    private PhotoVariants createVariants(StagedPhoto photo) throws IOException {
+        BufferedImage image = readOriented(photo.file(), WIDTHS[0]);
+        if (image == null) {
+            // Not a format ImageIO can decode (e.g. HEIC, WebP) or too large; the original is still served
+            return null;
+        }
+
+        String baseName = variantBaseName(photo.url());
+        String[] urls = new String[WIDTHS.length];
+        for (int i = 0; i < WIDTHS.length; i++) {
+            image = resize(image, WIDTHS[i]);
+            urls[i] = storageService.uploadBytes(encodeJpeg(image, jpegQuality), "image/jpeg",
+                    baseName + "_w" + WIDTHS[i] + ".jpg");
+        }
+
+        byte[] placeholder = encodeJpeg(resize(image, PLACEHOLDER_WIDTH), PLACEHOLDER_QUALITY);
+        return new PhotoVariants(urls[2], urls[1], urls[0],
+                "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(placeholder));
+    }
+
+    // Decode at no more than about twice the target width and apply the EXIF orientation;
+    // null if ImageIO cannot read the format or the image has too many pixels
+    private BufferedImage readOriented(Path file, int targetWidth) throws IOException {
+        int orientation = readExifOrientation(file);
+        boolean sideways = orientation >= 5 && orientation <= 8;
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                // Metadata is never read, so it cannot end up in the output
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // The size comes from the file: a small, well-compressed PNG can claim 1600x100000
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    log.warn("Not resizing a {}x{} image: too many pixels", width, height);
+                    return null;
+                }
+                int displayWidth = sideways ? height : width;
+
+                // Decode every n-th pixel so a 6000px photo is never fully rasterized in memory,
+                // and skip more for very tall or wide images so the raster stays within budget
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, displayWidth / targetWidth);
+                while ((long) Math.ceilDiv(width, step) * Math.ceilDiv(height, step) > MAX_DECODED_PIXELS) {
+                    step++;
+                }
+                param.setSourceSubsampling(step, step, 0, 0);
+                return rotate(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage rotate(BufferedImage image, int orientation) {
+        // Rotations only; mirrored orientations (2, 4, 5, 7) are rare enough to ignore
+        int quadrants = switch (orientation) {
+            case 6 -> 1;
+            case 3 -> 2;
+            case 8 -> 3;
+            default -> 0;
+        };
+        if (quadrants == 0) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = quadrants % 2 == 1;
+        BufferedImage rotated = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        AffineTransform transform = new AffineTransform();
+        transform.translate(rotated.getWidth() / 2.0, rotated.getHeight() / 2.0);
+        transform.quadrantRotate(quadrants);
+        transform.translate(-width / 2.0, -height / 2.0);
+
+        Graphics2D g = rotated.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rotated.getWidth(), rotated.getHeight());
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+
+        // JPEG has no alpha: transparent PNG areas become white
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Orientation tag (0x0112) from the EXIF block of a JPEG; 1 (upright) if there is none
+    private int readExifOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) return 1;
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // EXIF always comes before the image data (start of scan)
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) return 1;
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                Integer orientation = orientationFromExif(in.readNBytes(length));
+                if (orientation != null) return orientation;
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    // null if the APP1 segment is not EXIF (e.g. XMP)
+    private Integer orientationFromExif(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return null;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                return tiff.getShort(entry + 8) & 0xFFFF;
+            }
+        }
+        return 1;
+    }
+
+    // Merge into the stored variants, dropping photos the trip no longer shows
+    private void saveVariants(Long tripId, Map<String, PhotoVariants> created) {
+        synchronized (mergeLock) {
+            List<Object[]> rows = tripRepository.findPhotosAndVariants(tripId);
+            if (rows.isEmpty()) {
+                // Trip was deleted while we were working
+                return;
+            }
+            Object[] row = rows.get(0);
+            Set<String> photos = new HashSet<>(Arrays.asList((String[]) row[0]));
+            Map<String, PhotoVariants> merged = PhotoVariants.parseMap((String) row[1]);
+            merged.putAll(created);
+            merged.keySet().retainAll(photos);
+            tripRepository.updatePhotoVariants(tripId, PhotoVariants.toJson(merged), LocalDateTime.now());
+        }
+        tripCacheService.evictTrip(tripId);
+        feedSnapshotService.invalidate();
+    }
+
+    // "<bucket object name without extension>", so variants sit next to their original
+    private String variantBaseName(String url) {
+        String objectName = storageService.objectNameFromUrl(url);
+        int dot = objectName.lastIndexOf('.');
+        return dot > 0 ? objectName.substring(0, dot) : objectName;
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete staged photo {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
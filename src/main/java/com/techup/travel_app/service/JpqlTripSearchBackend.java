@@ -0,0 +1,25 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Original LIKE-based search. Needs no index or schema changes but scans the table.
+ */
+@Service
+@ConditionalOnProperty(name = "trip.search.backend", havingValue = "jpql")
+public class JpqlTripSearchBackend implements TripSearchBackend {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        // Newest first, since LIKE matching has no notion of relevance
+        return tripRepository.searchByTitleOrTags(query, pageable);
+    }
+}
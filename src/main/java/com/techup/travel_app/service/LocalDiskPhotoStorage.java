@@ -0,0 +1,211 @@
+package com.techup.travel_app.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Stores photos in a directory on local disk and serves them from the app
+ * through LocalFileController. Useful for running and benchmarking the
+ * upload and serve paths without Supabase, and for serving hot images
+ * without a remote round trip.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalDiskPhotoStorage implements PhotoStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalDiskPhotoStorage.class);
+
+    // Where LocalFileController serves stored files
+    public static final String FILES_PATH = "/api/files/";
+
+    // Where LocalFileController accepts signed direct uploads
+    public static final String UPLOAD_PATH = "/api/files/upload/";
+
+    // One path segment, no hidden files: names are content hashes plus an extension
+    private static final Pattern OBJECT_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+
+    @Value("${storage.local.root:./data/photos}")
+    private String rootDir;
+
+    @Value("${storage.local.public-url:http://localhost:8080}")
+    private String publicUrl;
+
+    @Autowired
+    private UploadSigner uploadSigner;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Storing photos on local disk in {}", root);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String objectName) {
+        try (InputStream in = file.getInputStream()) {
+            return write(objectName, in);
+        } catch (IOException e) {
+            log.warn("Cannot store file {}: {}", objectName, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cannot store file", e);
+        }
+    }
+
+    @Override
+    public String uploadFile(Path file, String contentType, String objectName) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return write(objectName, in);
+        } catch (IOException e) {
+            log.warn("Cannot store file {}: {}", objectName, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cannot store file", e);
+        }
+    }
+
+    @Override
+    public String uploadBytes(byte[] data, String contentType, String objectName) {
+        try {
+            return write(objectName, new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            log.warn("Cannot store file {}: {}", objectName, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cannot store file", e);
+        }
+    }
+
+    @Override
+    public boolean isStoredUrl(String url) {
+        return url != null && url.startsWith(publicUrl + FILES_PATH);
+    }
+
+    // Stand-in for the storage service's signer, so direct uploads work offline
+    @Override
+    public SignedUpload createSignedUpload(String objectName, String contentType, long maxBytes, Duration ttl) {
+        if (find(objectName) == null) {
+            throw new IllegalArgumentException("Invalid object name: " + objectName);
+        }
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        String signature = uploadSigner.sign(uploadPayload(objectName, maxBytes, expires));
+        String url = publicUrl + UPLOAD_PATH + objectName
+                + "?expires=" + expires + "&maxBytes=" + maxBytes + "&signature=" + signature;
+        return new SignedUpload(url, "PUT",
+                Map.of("Content-Type", contentType != null ? contentType : "application/octet-stream"));
+    }
+
+    /**
+     * Check the query parameters of a locally signed upload URL
+     * @param objectName The object name from the path
+     * @param expires Expiry (epoch seconds) from the URL
+     * @param maxBytes Size limit from the URL
+     * @param signature Signature from the URL
+     * @return true if the URL was signed by us and has not expired
+     */
+    public boolean verifySignedUpload(String objectName, long expires, long maxBytes, String signature) {
+        return Instant.now().getEpochSecond() <= expires
+                && uploadSigner.verify(uploadPayload(objectName, maxBytes, expires), signature);
+    }
+
+    /**
+     * Store an upload received on a signed URL
+     * @param objectName The object name
+     * @param in The request body
+     * @return The public URL of the stored object
+     * @throws IOException if the body cannot be read or stored
+     */
+    public String store(String objectName, InputStream in) throws IOException {
+        return write(objectName, in);
+    }
+
+    @Override
+    public String publicUrl(String objectName) {
+        return publicUrl + FILES_PATH + objectName;
+    }
+
+    @Override
+    public boolean exists(String objectName) {
+        Path file = find(objectName);
+        return file != null && Files.isRegularFile(file);
+    }
+
+    @Override
+    public void download(String url, Path target) throws IOException {
+        Path file = find(objectNameFromUrl(url));
+        if (file == null) {
+            throw new IOException("Not a stored object: " + url);
+        }
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String uploadPayload(String objectName, long maxBytes, long expires) {
+        return "upload|" + objectName + "|" + maxBytes + "|" + expires;
+    }
+
+    @Override
+    public void deleteFiles(List<String> fileUrls) {
+        IOException failure = null;
+        for (String url : fileUrls) {
+            Path file = find(objectNameFromUrl(url));
+            if (file == null) continue;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            // Lets PhotoCleanupService retry the batch; deleting again is harmless
+            throw new UncheckedIOException("Failed to delete some files", failure);
+        }
+        log.debug("Deleted {} file(s) from local storage", fileUrls.size());
+    }
+
+    /**
+     * Path of a stored object
+     * @param objectName The object name from the URL
+     * @return The file, or null if the name is not a valid object name
+     */
+    public Path find(String objectName) {
+        if (objectName == null || !OBJECT_NAME.matcher(objectName).matches()) {
+            return null;
+        }
+        return root.resolve(objectName);
+    }
+
+    // Write to a temp file next to the target and rename, so readers never see a partial file
+    private String write(String objectName, InputStream in) throws IOException {
+        Path target = find(objectName);
+        if (target == null) {
+            throw new IllegalArgumentException("Invalid object name: " + objectName);
+        }
+
+        Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return publicUrl(objectName);
+    }
+}
@@ -0,0 +1,247 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.dto.PhotoVariants;
+import com.techup.travel_app.entity.PhotoDeletion;
+import com.techup.travel_app.repository.PhotoDeletionRepository;
+import com.techup.travel_app.repository.PhotoObjectRepository;
+import com.techup.travel_app.repository.TripRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes photos from storage after they are removed from a trip, and uploads
+ * that were never attached to one. Requests only record the URLs; a scheduled
+ * worker later checks that no trip still shows each photo and deletes whole
+ * batches with one bulk-remove call. Failed batches stay queued in the database
+ * and are retried with exponential backoff. Uploads that reuse a stored file
+ * reserve it first, and a reserved file is not deleted until the reservation ends.
+ */
+@Service
+public class PhotoCleanupService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoCleanupService.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+    @Value("${trip.photo-gc.batch-size:100}")
+    private int batchSize;
+
+    @Value("${trip.photo-gc.max-attempts:10}")
+    private int maxAttempts;
+
+    // Time a removed photo waits before it is collected, so a quick undo or a
+    // deduplicated re-upload in flight can still claim it
+    @Value("${trip.photo-gc.grace-period:10m}")
+    private Duration gracePeriod;
+
+    @Autowired
+    private PhotoDeletionRepository photoDeletionRepository;
+
+    @Autowired
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PhotoStorage storageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Queue the photos a trip no longer shows for deletion
+     * @param previousPhotos The trip's photos before the change
+     * @param previousVariants The trip's photo_variants JSON before the change
+     * @param currentPhotos The trip's photos now (empty if the trip was deleted)
+     */
+    public void enqueueRemoved(String[] previousPhotos, String previousVariants, String[] currentPhotos) {
+        Set<String> kept = new HashSet<>(Arrays.asList(currentPhotos));
+        Map<String, PhotoVariants> variants = PhotoVariants.parseMap(previousVariants);
+        LocalDateTime dueAt = LocalDateTime.now().plus(gracePeriod);
+
+        List<PhotoDeletion> deletions = new ArrayList<>();
+        for (String photo : new LinkedHashSet<>(Arrays.asList(previousPhotos))) {
+            if (kept.contains(photo) || !storageService.isStoredUrl(photo)) {
+                continue;
+            }
+            deletions.add(new PhotoDeletion(photo, variantUrls(variants.get(photo)), dueAt));
+        }
+
+        if (!deletions.isEmpty()) {
+            try {
+                photoDeletionRepository.saveAll(deletions);
+            } catch (Exception e) {
+                // Losing a cleanup entry only leaks storage; never fail the user's request for it
+                log.warn("Failed to queue {} photo(s) for deletion: {}", deletions.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queue photos that are in storage but not attached to a trip yet (direct and
+     * resumable uploads). Whatever no trip shows once they can no longer be
+     * attached is deleted like a removed photo; attached ones are simply dropped
+     * from the queue.
+     * @param urls Public URLs of the uploaded photos
+     * @param attachBy When the last ticket for these uploads expires
+     */
+    public void enqueueUnattached(List<String> urls, Instant attachBy) {
+        LocalDateTime dueAt = LocalDateTime.ofInstant(attachBy, ZoneId.systemDefault()).plus(gracePeriod);
+        List<PhotoDeletion> pending = new ArrayList<>(urls.size());
+        for (String url : new LinkedHashSet<>(urls)) {
+            pending.add(new PhotoDeletion(url, null, dueAt));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            photoDeletionRepository.saveAll(pending);
+        } catch (Exception e) {
+            // Same trade-off as enqueueRemoved: a lost entry only leaks storage
+            log.warn("Failed to queue {} pending upload(s): {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Keep a stored file for an upload that reuses it instead of uploading it again
+     * @param contentHash SHA-256 of the file
+     * @param attachBy When the upload can no longer be attached to a trip
+     * @return False if the file is no longer stored and has to be uploaded again
+     */
+    public boolean reserveStored(String contentHash, Instant attachBy) {
+        LocalDateTime until = LocalDateTime.ofInstant(attachBy, ZoneId.systemDefault()).plus(gracePeriod);
+        return photoObjectRepository.reserve(contentHash, until) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${trip.photo-gc.interval:60s}", initialDelayString = "${trip.photo-gc.initial-delay:30s}")
+    public void collect() {
+        try {
+            List<PhotoDeletion> due = photoDeletionRepository.findDue(LocalDateTime.now(), maxAttempts, Limit.of(batchSize));
+            while (!due.isEmpty()) {
+                collectBatch(due);
+                if (due.size() < batchSize) break;
+                due = photoDeletionRepository.findDue(LocalDateTime.now(), maxAttempts, Limit.of(batchSize));
+            }
+        } catch (Exception e) {
+            log.warn("Photo cleanup run failed: {}", e.getMessage());
+        }
+    }
+
+    private void collectBatch(List<PhotoDeletion> batch) {
+        List<PhotoDeletion> toDelete = new ArrayList<>();
+        List<PhotoDeletion> stillUsed = new ArrayList<>();
+        for (PhotoDeletion deletion : batch) {
+            if (tripRepository.isPhotoReferenced(deletion.getUrl())) {
+                stillUsed.add(deletion);
+            } else {
+                toDelete.add(deletion);
+            }
+        }
+        // Another trip shows the same stored file: nothing to delete
+        photoDeletionRepository.deleteAllInBatch(stillUsed);
+        if (toDelete.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> deleteUnreserved(toDelete));
+        } catch (Exception e) {
+            log.warn("Failed to delete {} photo(s), will retry: {}", toDelete.size(), e.getMessage());
+            LocalDateTime now = LocalDateTime.now();
+            for (PhotoDeletion deletion : toDelete) {
+                deletion.setAttempts(deletion.getAttempts() + 1);
+                deletion.setNextAttemptAt(now.plus(backoff(deletion.getAttempts())));
+                deletion.setLastError(e.getMessage());
+            }
+            photoDeletionRepository.saveAll(toDelete);
+        }
+    }
+
+    // Runs in one transaction: the photo_objects rows stay locked until storage has deleted
+    // the files, so an upload reusing one of them waits and then stores the file again
+    private void deleteUnreserved(List<PhotoDeletion> batch) {
+        Set<String> originals = new LinkedHashSet<>();
+        for (PhotoDeletion deletion : batch) {
+            originals.add(deletion.getUrl());
+        }
+        Map<String, LocalDateTime> reservedUntil = new HashMap<>();
+        for (Object[] row : photoObjectRepository.lockByUrlIn(originals)) {
+            if (row[1] != null) {
+                reservedUntil.put((String) row[0], ((Timestamp) row[1]).toLocalDateTime());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PhotoDeletion> reserved = new ArrayList<>();
+        List<PhotoDeletion> toDelete = new ArrayList<>();
+        for (PhotoDeletion deletion : batch) {
+            LocalDateTime until = reservedUntil.get(deletion.getUrl());
+            if (until != null && until.isAfter(now)) {
+                // Checked again once the reusing upload has had its chance to attach the photo
+                deletion.setNextAttemptAt(until);
+                reserved.add(deletion);
+            } else {
+                toDelete.add(deletion);
+            }
+        }
+        photoDeletionRepository.saveAll(reserved);
+        if (toDelete.isEmpty()) {
+            return;
+        }
+
+        Set<String> deleted = new LinkedHashSet<>();
+        Set<String> urls = new LinkedHashSet<>();
+        for (PhotoDeletion deletion : toDelete) {
+            deleted.add(deletion.getUrl());
+            urls.add(deletion.getUrl());
+            if (deletion.getVariantUrls() != null && !deletion.getVariantUrls().isEmpty()) {
+                urls.addAll(Arrays.asList(deletion.getVariantUrls().split(",")));
+            }
+        }
+        // Forget the objects first so new uploads of the same file store it again
+        photoObjectRepository.deleteByUrlIn(deleted);
+        storageService.deleteFiles(new ArrayList<>(urls));
+        photoDeletionRepository.deleteAllInBatch(toDelete);
+    }
+
+    // 1, 2, 4, ... minutes, capped at MAX_BACKOFF
+    private Duration backoff(int attempts) {
+        Duration delay = Duration.ofMinutes(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private String variantUrls(PhotoVariants variants) {
+        if (variants == null) {
+            return null;
+        }
+        List<String> urls = new ArrayList<>();
+        for (String url : new String[]{variants.small(), variants.medium(), variants.large()}) {
+            if (storageService.isStoredUrl(url)) {
+                urls.add(url);
+            }
+        }
+        return urls.isEmpty() ? null : String.join(",", urls);
+    }
+}
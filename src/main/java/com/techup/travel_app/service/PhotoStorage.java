@@ -0,0 +1,105 @@
+package com.techup.travel_app.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object storage for trip photos. The active implementation is chosen with the
+ * storage.backend property: supabase (default) or local.
+ */
+public interface PhotoStorage {
+
+    /**
+     * A short-lived URL the browser can upload one object to directly
+     * @param url Where to send the bytes
+     * @param method HTTP method to use
+     * @param headers Headers the upload request must carry
+     */
+    record SignedUpload(String url, String method, Map<String, String> headers) {
+    }
+
+    /**
+     * Store an uploaded file and return its public URL
+     * @param file The file to store
+     * @param objectName The name to store it under
+     * @return The public URL of the stored file
+     */
+    String uploadFile(MultipartFile file, String objectName);
+
+    /**
+     * Store a file from local disk (e.g. a finished resumable upload) and return its public URL
+     * @param file The file to store
+     * @param contentType The MIME type of the file
+     * @param objectName The name to store it under
+     * @return The public URL of the stored file
+     */
+    String uploadFile(Path file, String contentType, String objectName);
+
+    /**
+     * Store small generated content (e.g. resized image variants) and return its public URL
+     * @param data The bytes to store
+     * @param contentType The MIME type of the content
+     * @param objectName The name to store it under
+     * @return The public URL of the stored object
+     */
+    String uploadBytes(byte[] data, String contentType, String objectName);
+
+    /**
+     * Object name for one of our public URLs
+     * @param publicUrl The public URL returned by an upload
+     * @return The object name
+     */
+    default String objectNameFromUrl(String publicUrl) {
+        return publicUrl.substring(publicUrl.lastIndexOf("/") + 1);
+    }
+
+    /**
+     * Whether a URL points into this storage (trips may also hold external image links)
+     * @param url The photo URL
+     * @return true if the object lives in this storage
+     */
+    boolean isStoredUrl(String url);
+
+    /**
+     * Delete several files at once
+     * @param fileUrls The public URLs of the files to delete
+     */
+    void deleteFiles(List<String> fileUrls);
+
+    /**
+     * Create a signed URL for uploading one object without going through the app
+     * @param objectName The name the object will be stored under
+     * @param contentType The MIME type of the upload
+     * @param maxBytes Largest upload to accept, where the backend can enforce it
+     * @param ttl How long the URL stays valid, where the backend lets us choose
+     * @return The signed upload
+     */
+    SignedUpload createSignedUpload(String objectName, String contentType, long maxBytes, Duration ttl);
+
+    /**
+     * Public URL of a stored object
+     * @param objectName The object name
+     * @return The URL photos are served from
+     */
+    String publicUrl(String objectName);
+
+    /**
+     * Whether an object has been stored
+     * @param objectName The object name
+     * @return true if it exists
+     */
+    boolean exists(String objectName);
+
+    /**
+     * Copy a stored object to a local file
+     * @param url The public URL of the object
+     * @param target The file to write
+     * @throws IOException if the object cannot be read or written
+     */
+    void download(String url, Path target) throws IOException;
+}
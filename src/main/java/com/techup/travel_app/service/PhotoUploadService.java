@@ -0,0 +1,240 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.PhotoObject;
+import com.techup.travel_app.repository.PhotoObjectRepository;
+import com.techup.travel_app.util.FileNames;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads the photos of one trip concurrently. A shared pool caps the number of
+ * uploads in flight across all requests, and each request may only use a few
+ * of those slots at a time so one large trip cannot starve the others.
+ * Objects are named by the SHA-256 of their bytes, so a file that is already
+ * stored is never uploaded again. Finished resumable uploads are stored the same way.
+ */
+@Service
+public class PhotoUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoUploadService.class);
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private PhotoStorage storageService;
+
+    @Autowired
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Autowired
+    private PhotoCleanupService photoCleanupService;
+
+    private final int perRequestParallelism;
+    private final ExecutorService uploadExecutor;
+
+    // Caps uploads in flight across requests when each upload gets its own virtual thread
+    private final Semaphore uploadSlots;
+
+    /**
+     * Result of uploading a batch of photos
+     * @param uploaded The uploaded photos, in the order they were submitted
+     * @param failures Photos that could not be uploaded
+     */
+    public record UploadResult(List<UploadedPhoto> uploaded, List<UploadFailure> failures) {
+
+        // Public URLs of the uploaded photos, in the order they were submitted
+        public List<String> urls() {
+            return uploaded.stream().map(UploadedPhoto::url).toList();
+        }
+    }
+
+    /**
+     * A photo that was uploaded
+     * @param index Position of the photo in the submitted array
+     * @param url Public URL of the uploaded photo
+     */
+    public record UploadedPhoto(int index, String url) {
+    }
+
+    /**
+     * A photo that failed to upload
+     * @param index Position of the photo in the submitted array
+     * @param fileName Original file name
+     * @param error Why the upload failed
+     */
+    public record UploadFailure(int index, String fileName, String error) {
+    }
+
+    public PhotoUploadService(
+            @Value("${trip.upload.max-concurrent:16}") int maxConcurrent,
+            @Value("${trip.upload.per-request-parallelism:4}") int perRequestParallelism,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.perRequestParallelism = Math.max(1, perRequestParallelism);
+        if (virtualThreads) {
+            // Uploads mostly wait on the network, so a virtual thread each is cheaper than a pool
+            this.uploadExecutor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("photo-upload-", 1).factory());
+            this.uploadSlots = new Semaphore(Math.max(1, maxConcurrent));
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.uploadExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrent), runnable -> {
+                Thread thread = new Thread(runnable, "photo-upload-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.uploadSlots = null;
+        }
+    }
+
+    /**
+     * Upload photos concurrently, keeping their order
+     * @param photos The submitted files (may be null; empty files are skipped)
+     * @return URLs of the successful uploads in submission order, plus any failures
+     */
+    public UploadResult uploadAll(MultipartFile[] photos) {
+        List<UploadedPhoto> uploaded = new ArrayList<>();
+        List<UploadFailure> failures = new ArrayList<>();
+        if (photos == null || photos.length == 0) {
+            return new UploadResult(uploaded, failures);
+        }
+
+        // The request thread only hands out a new upload once one of its own has finished
+        Semaphore requestSlots = new Semaphore(perRequestParallelism);
+        List<Future<String>> futures = new ArrayList<>(photos.length);
+        try {
+            for (MultipartFile photo : photos) {
+                if (photo.isEmpty()) {
+                    futures.add(null);
+                    continue;
+                }
+                requestSlots.acquire();
+                futures.add(uploadExecutor.submit(() -> {
+                    try {
+                        return uploadSlots != null ? storeWithSlot(photo) : storeDeduplicated(photo);
+                    } finally {
+                        requestSlots.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < photos.length; i++) {
+                Future<String> future = futures.get(i);
+                if (future == null) continue;
+                try {
+                    String url = future.get();
+                    uploaded.add(new UploadedPhoto(i, url));
+                    log.debug("Uploaded photo: {}", url);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.warn("Failed to upload photo {}: {}", photos[i].getOriginalFilename(), cause.getMessage());
+                    failures.add(new UploadFailure(i, photos[i].getOriginalFilename(), cause.getMessage()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> {
+                if (future != null) future.cancel(true);
+            });
+            throw new IllegalStateException("Interrupted while uploading photos", e);
+        }
+
+        return new UploadResult(uploaded, failures);
+    }
+
+    /**
+     * Store a photo that is already on local disk, e.g. a finished resumable upload.
+     * Like the multipart path, a file that is already stored is not uploaded again.
+     * @param file The photo
+     * @param contentType The MIME type of the photo
+     * @param originalFilename The client's file name, for the extension
+     * @param attachBy When the photo can no longer be attached to a trip
+     * @return The public URL of the photo
+     * @throws IOException if the file cannot be read
+     */
+    public String storeFile(Path file, String contentType, String originalFilename, Instant attachBy) throws IOException {
+        String hash;
+        try (InputStream in = Files.newInputStream(file)) {
+            hash = sha256(in);
+        }
+        Optional<PhotoObject> existing = photoObjectRepository.findById(hash);
+        if (existing.isPresent() && photoCleanupService.reserveStored(hash, attachBy)) {
+            log.debug("Photo already stored, skipping upload: {}", existing.get().getUrl());
+            return existing.get().getUrl();
+        }
+
+        String url = storageService.uploadFile(file, contentType, hash + FileNames.extension(originalFilename));
+        photoObjectRepository.insertIfAbsent(hash, url, Files.size(file), contentType);
+        return url;
+    }
+
+    private String storeWithSlot(MultipartFile photo) throws IOException, InterruptedException {
+        uploadSlots.acquire();
+        try {
+            return storeDeduplicated(photo);
+        } finally {
+            uploadSlots.release();
+        }
+    }
+
+    private String storeDeduplicated(MultipartFile photo) throws IOException {
+        // The object name has to be known before the PUT starts, so hash the local
+        // multipart temp file first; a disk read is cheap next to re-sending the bytes
+        String hash;
+        try (InputStream in = photo.getInputStream()) {
+            hash = sha256(in);
+        }
+        // Reserved so the photo cleanup cannot delete it before the trip is saved
+        Optional<PhotoObject> existing = photoObjectRepository.findById(hash);
+        if (existing.isPresent() && photoCleanupService.reserveStored(hash, Instant.now())) {
+            log.debug("Photo already stored, skipping upload: {}", existing.get().getUrl());
+            return existing.get().getUrl();
+        }
+
+        String url = storageService.uploadFile(photo, hash + FileNames.extension(photo.getOriginalFilename()));
+        photoObjectRepository.insertIfAbsent(hash, url, photo.getSize(), photo.getContentType());
+        return url;
+    }
+
+    private String sha256(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+}
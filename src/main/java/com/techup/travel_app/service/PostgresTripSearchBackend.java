@@ -0,0 +1,128 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.repository.TripRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Database-side search: a tsvector column matched with plainto_tsquery plus
+ * pg_trgm GIN indexes for substring matches, ranked with ts_rank + similarity.
+ * PostgreSQL cannot segment Thai itself, so the app writes the tsvector from
+ * text that ThaiWordTokenizer has already split into words.
+ */
+@Service
+@ConditionalOnProperty(name = "trip.search.backend", havingValue = "postgres")
+public class PostgresTripSearchBackend implements TripSearchBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresTripSearchBackend.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ThaiWordTokenizer tokenizer;
+
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        String terms = String.join(" ", tokenizer.tokenize(query));
+        String pattern = "%" + escapeLikePattern(query) + "%";
+        return tripRepository.fullTextSearch(query, terms, pattern, pageable);
+    }
+
+    @Override
+    public void onTripSaved(Trip trip) {
+        if (trip == null || trip.getId() == null) return;
+        try {
+            updateSearchVector(trip);
+        } catch (Exception e) {
+            // The row stays searchable through the trigram predicates
+            log.warn("Failed to update search vector for trip {}: {}", trip.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onTripsSaved(List<Trip> trips) {
+        if (trips.isEmpty()) return;
+        try {
+            updateSearchVectors(trips);
+        } catch (Exception e) {
+            log.warn("Failed to update search vectors for {} trips: {}", trips.size(), e.getMessage());
+        }
+    }
+
+    // Fill search_vector for rows written before the column existed or by other clients
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSearchVectors() {
+        try {
+            int updated = 0;
+            List<Long> ids = tripRepository.findIdsWithoutSearchVector(BACKFILL_BATCH_SIZE);
+            while (!ids.isEmpty()) {
+                updated += updateSearchVectors(tripRepository.findAllById(ids));
+                if (ids.size() < BACKFILL_BATCH_SIZE) break;
+                ids = tripRepository.findIdsWithoutSearchVector(BACKFILL_BATCH_SIZE);
+            }
+            if (updated > 0) {
+                log.info("Backfilled search vectors for {} trips", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to backfill search vectors: {}", e.getMessage());
+        }
+    }
+
+    private void updateSearchVector(Trip trip) {
+        tripRepository.updateSearchVector(trip.getId(), titleTerms(trip), bodyTerms(trip));
+    }
+
+    // One UPDATE for the whole batch instead of one per trip
+    private int updateSearchVectors(List<Trip> trips) {
+        Long[] ids = new Long[trips.size()];
+        String[] titleTerms = new String[trips.size()];
+        String[] bodyTerms = new String[trips.size()];
+        for (int i = 0; i < trips.size(); i++) {
+            Trip trip = trips.get(i);
+            ids[i] = trip.getId();
+            titleTerms[i] = titleTerms(trip);
+            bodyTerms[i] = bodyTerms(trip);
+        }
+        return tripRepository.updateSearchVectors(ids, titleTerms, bodyTerms);
+    }
+
+    private String titleTerms(Trip trip) {
+        return String.join(" ", tokenizer.tokenize(trip.getTitle()));
+    }
+
+    private String bodyTerms(Trip trip) {
+        StringBuilder body = new StringBuilder();
+        appendTerms(body, trip.getDescription());
+        appendTerms(body, trip.getLocation());
+        appendTerms(body, trip.getProvince());
+        for (String tag : trip.getTagsArray()) {
+            appendTerms(body, tag);
+        }
+        return body.toString();
+    }
+
+    private void appendTerms(StringBuilder body, String text) {
+        for (String term : tokenizer.tokenize(text)) {
+            if (body.length() > 0) body.append(' ');
+            body.append(term);
+        }
+    }
+
+    // Treat %, _ and \ in user input literally
+    private String escapeLikePattern(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
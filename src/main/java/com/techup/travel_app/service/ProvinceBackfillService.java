@@ -0,0 +1,61 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.repository.TripRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Writes the province of legacy trips into the province column, from the
+ * coordinates when ProvinceLocator can place them and from a province named
+ * in the tags otherwise. Only real matches are stored: trips nothing matches
+ * keep an empty column (reads still show the last-tag guess) and are checked
+ * again on the next start, so a better dictionary or reference file fills
+ * them later.
+ */
+@Service
+public class ProvinceBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvinceBackfillService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ProvinceLocator provinceLocator;
+
+    // Runs on every start; afterwards only the trips nothing matched are read again
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillProvinces() {
+        try {
+            int updated = 0;
+            long lastId = 0;
+            List<Object[]> rows = tripRepository.findWithoutProvince(lastId, Limit.of(BACKFILL_BATCH_SIZE));
+            while (!rows.isEmpty()) {
+                for (Object[] row : rows) {
+                    lastId = (Long) row[0];
+                    // Same as the write path; rows nothing matches stay empty
+                    String province = provinceLocator.resolve((Double) row[2], (Double) row[3], (String[]) row[1]);
+                    if (province != null) {
+                        updated += tripRepository.fillProvince(lastId, province);
+                    }
+                }
+                if (rows.size() < BACKFILL_BATCH_SIZE) break;
+                rows = tripRepository.findWithoutProvince(lastId, Limit.of(BACKFILL_BATCH_SIZE));
+            }
+            if (updated > 0) {
+                log.info("Backfilled province for {} trips", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to backfill provinces: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.util.ProvinceResolver;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline reverse geocoding of Thai provinces. Coordinates are matched to the
+ * nearest of the reference points bundled in geo/th-province-points.csv
+ * (every provincial seat plus towns in large provinces), so no geocoding
+ * service is ever called.
+ *
+ * Nearest-point areas only approximate real borders, so a match is only
+ * trusted when the point is close to a reference point and clearly closer to
+ * it than to any other province's; otherwise callers fall back to the tags.
+ */
+@Service
+public class ProvinceLocator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvinceLocator.class);
+
+    private static final String DATA_FILE = "geo/th-province-points.csv";
+
+    // Farther than this from every reference point is most likely outside Thailand
+    private static final double MAX_DISTANCE_KM = 80;
+
+    // Nearest point must be at most this fraction of the distance to the next province
+    private static final double MAX_AMBIGUITY_RATIO = 0.7;
+
+    // Quick reject: everything outside this box is not in Thailand
+    private static final double MIN_LATITUDE = 5.5;
+    private static final double MAX_LATITUDE = 20.5;
+    private static final double MIN_LONGITUDE = 97.3;
+    private static final double MAX_LONGITUDE = 105.7;
+
+    private record ReferencePoint(String province, double latitude, double longitude) {
+    }
+
+    private List<ReferencePoint> points = List.of();
+
+    @PostConstruct
+    public void load() {
+        List<ReferencePoint> loaded = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(DATA_FILE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(",");
+                loaded.add(new ReferencePoint(parts[0].trim(),
+                        Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim())));
+            }
+            points = List.copyOf(loaded);
+            log.info("Province locator loaded {} reference points", points.size());
+        } catch (IOException | RuntimeException e) {
+            // Keep the app running; provinces then come from tags only
+            log.warn("Failed to load {}: {}", DATA_FILE, e.getMessage());
+        }
+    }
+
+    /**
+     * Province to store for a trip: from the coordinates when they can be placed,
+     * otherwise a province named in the tags. Never guesses from the last tag
+     * like Trip.getProvince() does for display.
+     * @param latitude Latitude in degrees (may be null)
+     * @param longitude Longitude in degrees (may be null)
+     * @param tags The trip's tags (may be null)
+     * @return The official province name, or null if nothing matched
+     */
+    public String resolve(Double latitude, Double longitude, String[] tags) {
+        String province = locate(latitude, longitude);
+        return province != null ? province : ProvinceResolver.find(tags);
+    }
+
+    /**
+     * Find the province containing a point
+     * @param latitude Latitude in degrees (may be null)
+     * @param longitude Longitude in degrees (may be null)
+     * @return The official province name, or null if unknown, outside Thailand or too close to a border to tell
+     */
+    public String locate(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null
+                || latitude < MIN_LATITUDE || latitude > MAX_LATITUDE
+                || longitude < MIN_LONGITUDE || longitude > MAX_LONGITUDE) {
+            return null;
+        }
+
+        // A few hundred points: a straight scan is faster than any index would be
+        ReferencePoint nearest = null;
+        double nearestKm = Double.MAX_VALUE;
+        for (ReferencePoint point : points) {
+            double distance = TripGeoIndex.haversineKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance < nearestKm) {
+                nearest = point;
+                nearestKm = distance;
+            }
+        }
+        if (nearest == null || nearestKm > MAX_DISTANCE_KM) {
+            return null;
+        }
+
+        double otherKm = Double.MAX_VALUE;
+        for (ReferencePoint point : points) {
+            if (!point.province().equals(nearest.province())) {
+                otherKm = Math.min(otherKm,
+                        TripGeoIndex.haversineKm(latitude, longitude, point.latitude(), point.longitude()));
+            }
+        }
+        return nearestKm <= MAX_AMBIGUITY_RATIO * otherKm ? nearest.province() : null;
+    }
+}
@@ -0,0 +1,156 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.config.ReactiveDatabaseConfig;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
+import com.techup.travel_app.repository.ReactiveTripReadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of TripFeedService and the search/detail reads in
+ * TravelController. Database work goes through R2DBC, so no request thread
+ * waits on a query; results use the same cursors and payloads as the blocking API.
+ */
+@Service
+@Conditional(ReactiveDatabaseConfig.Enabled.class)
+public class ReactiveTripReadService {
+
+    // Below this many rows an exact COUNT(*) is cheap enough to run
+    private static final long EXACT_COUNT_THRESHOLD = 10_000;
+
+    @Value("${trip.feed.total-ttl:30s}")
+    private Duration totalTtl;
+
+    @Autowired
+    private ReactiveTripReadRepository reactiveTripReadRepository;
+
+    @Autowired
+    private TripSearchBackend tripSearchBackend;
+
+    // Last feed total, reused by cursor pages until it is older than totalTtl
+    private volatile CountedTotal lastTotal;
+
+    private record CountedTotal(Map.Entry<Long, Boolean> total, Instant countedAt) {
+    }
+
+    /**
+     * One page of search results
+     * @param trips The matching trips in ranking order
+     * @param total Number of matches
+     * @param hasMore Whether another page exists
+     */
+    public record SearchPage(List<TripSummary> trips, long total, boolean hasMore) {
+    }
+
+    /**
+     * Load one page of the feed
+     * @param cursor The nextCursor from the previous page, or null for the first page
+     * @param size The page size
+     * @return The page and the cursor to continue from
+     * @throws IllegalArgumentException if the cursor is malformed (thrown on subscribe)
+     */
+    public Mono<TripFeedService.FeedPage> getFeed(String cursor, int size) {
+        return Mono.defer(() -> {
+            // Fetch one extra row to know whether another page exists
+            Flux<TripSummary> rows;
+            boolean firstPage = cursor == null || cursor.isBlank();
+            if (firstPage) {
+                rows = reactiveTripReadRepository.findFeed(size + 1);
+            } else {
+                TripFeedService.Position position = TripFeedService.decodeCursor(cursor);
+                rows = reactiveTripReadRepository.findFeedAfter(position.createdAt(), position.id(), size + 1);
+            }
+
+            CountedTotal cached = lastTotal;
+            Mono<Map.Entry<Long, Boolean>> feedTotal = !firstPage && cached != null && cached.countedAt().plus(totalTtl).isAfter(Instant.now())
+                    ? Mono.just(cached.total())
+                    : total().doOnNext(counted -> lastTotal = new CountedTotal(counted, Instant.now()));
+
+            return Mono.zip(rows.collectList(), feedTotal)
+                    .map(result -> {
+                        List<TripSummary> trips = result.getT1();
+                        String nextCursor = null;
+                        if (trips.size() > size) {
+                            trips = trips.subList(0, size);
+                            nextCursor = TripFeedService.encodeCursor(trips.get(size - 1));
+                        }
+                        Map.Entry<Long, Boolean> total = result.getT2();
+                        return new TripFeedService.FeedPage(trips, nextCursor, total.getKey(), total.getValue());
+                    });
+        });
+    }
+
+    /**
+     * Stream the feed, newest first. Rows are read only as fast as the
+     * client consumes them.
+     * @param limit Most trips to stream
+     * @return The trips
+     */
+    public Flux<TripSummary> streamFeed(int limit) {
+        return reactiveTripReadRepository.streamFeed(limit);
+    }
+
+    /**
+     * Search trips
+     * @param query The decoded search text
+     * @param page Zero-based page number
+     * @param size The page size
+     * @return The page of matches
+     */
+    public Mono<SearchPage> search(String query, int page, int size) {
+        // The search backends are blocking (JDBC or an in-memory index), so they run off the event loop
+        return Mono.fromCallable(() -> tripSearchBackend.search(query, PageRequest.of(page, size)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(results -> loadInOrder(results.getContent())
+                        .map(trips -> new SearchPage(trips, results.getTotalElements(), results.hasNext())));
+    }
+
+    /**
+     * Load one trip
+     * @param id The trip id
+     * @return The detail, or empty if the trip does not exist
+     */
+    public Mono<TripDetail> getDetail(Long id) {
+        return reactiveTripReadRepository.findDetail(id);
+    }
+
+    // Exact count for small tables, planner estimate for large ones (value, estimated)
+    private Mono<Map.Entry<Long, Boolean>> total() {
+        return reactiveTripReadRepository.estimateCount()
+                .defaultIfEmpty(-1L)
+                .flatMap(estimate -> estimate >= EXACT_COUNT_THRESHOLD
+                        ? Mono.just(Map.entry(estimate, true))
+                        : reactiveTripReadRepository.count().map(count -> Map.entry(count, false)));
+    }
+
+    // Summaries in the ranking order of ids; ids deleted since the search are skipped
+    private Mono<List<TripSummary>> loadInOrder(List<Long> ids) {
+        return reactiveTripReadRepository.findSummariesByIdIn(ids)
+                .collect(Collectors.toMap(TripSummary::id, Function.identity()))
+                .map(byId -> {
+                    List<TripSummary> ordered = new ArrayList<>(ids.size());
+                    for (Long id : ids) {
+                        TripSummary summary = byId.get(id);
+                        if (summary != null) {
+                            ordered.add(summary);
+                        }
+                    }
+                    return ordered;
+                });
+    }
+}
@@ -0,0 +1,330 @@
+package com.techup.travel_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable photo uploads in the style of tus (https://tus.io): the client creates
+ * an upload with its total length, then sends the bytes in PATCH requests that
+ * each start at the server's current offset. Chunks are appended to a temp file,
+ * so an interrupted request keeps what arrived and the retry only sends the rest.
+ * The finished file is stored like any other photo and handed back as an upload
+ * ticket for the photo confirm endpoint; until it is attached it is queued with
+ * PhotoCleanupService, like a signed direct upload.
+ *
+ * State lives next to the data on disk (id.json + id.part), so the offset is
+ * simply the size of the part file and survives restarts.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${trip.resumable-upload.dir:${java.io.tmpdir}/travel-app-uploads}")
+    private Path directory;
+
+    @Value("${trip.resumable-upload.max-file-size:25MB}")
+    private DataSize maxFileSize;
+
+    @Value("${trip.resumable-upload.expiry:24h}")
+    private Duration expiry;
+
+    @Autowired
+    private PhotoUploadService photoUploadService;
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private UploadSigner uploadSigner;
+
+    @Autowired
+    private PhotoStorage photoStorage;
+
+    @Autowired
+    private PhotoCleanupService photoCleanupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Uploads with a PATCH in progress; a second concurrent PATCH would corrupt the offset
+    private final Set<String> busy = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Where an upload stands
+     * @param id The upload id
+     * @param offset Bytes received so far
+     * @param length Total size of the file
+     * @param expiresAt When unfinished data is discarded
+     * @param ticket Ticket for the photo confirm endpoint, once the upload is complete
+     * @param url Public URL of the stored photo, once the upload is complete
+     */
+    public record UploadStatus(String id, long offset, long length, Instant expiresAt, String ticket, String url) {
+
+        public boolean complete() {
+            return url != null;
+        }
+    }
+
+    // Persisted as <id>.json; objectName and url are filled in once the file is stored
+    private record UploadInfo(Long userId, long length, String fileName, String contentType,
+                              long expiresAt, String objectName, String url) {
+
+        UploadInfo stored(String objectName, String url) {
+            return new UploadInfo(userId, length, fileName, contentType, expiresAt, objectName, url);
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Start an upload
+     * @param userId The uploading user
+     * @param length Total size of the file in bytes
+     * @param fileName The client's file name
+     * @param contentType The MIME type of the file
+     * @return The new upload at offset 0
+     * @throws ResponseStatusException 400 if the file is not an image, 413 if it is too large,
+     *         503 if no signing key is configured
+     */
+    public UploadStatus create(Long userId, long length, String fileName, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only images can be uploaded");
+        }
+        if (length <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload-Length must be positive");
+        }
+        if (length > maxFileSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Photos can be at most " + maxFileSize.toMegabytes() + "MB");
+        }
+        // The finished upload is attached with a signed ticket; refuse before any bytes arrive
+        uploadSigner.requireKey();
+
+        String id = UUID.randomUUID().toString().replace("-", "");
+        UploadInfo info = new UploadInfo(userId, length, fileName, contentType,
+                Instant.now().plus(expiry).getEpochSecond(), null, null);
+        try {
+            Files.createFile(partFile(id));
+            writeInfo(id, info);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create upload " + id, e);
+        }
+        return status(id, info, 0);
+    }
+
+    /**
+     * Current offset of an upload, so the client knows where to resume
+     * @param userId The requesting user
+     * @param id The upload id
+     * @return The upload status
+     * @throws ResponseStatusException 404 if the upload does not exist, has expired or is someone else's
+     */
+    public UploadStatus status(Long userId, String id) {
+        UploadInfo info = load(userId, id);
+        return status(id, info, offset(id, info));
+    }
+
+    /**
+     * Append one chunk. When the last byte arrives the file is stored and the
+     * returned status carries the photo's URL and ticket.
+     * @param userId The uploading user
+     * @param id The upload id
+     * @param offset Upload-Offset sent by the client; must match the server's offset
+     * @param body The chunk
+     * @return The upload status after the chunk
+     * @throws ResponseStatusException 404 unknown upload, 409 offset mismatch or concurrent PATCH, 413 too many bytes
+     */
+    public UploadStatus append(Long userId, String id, long offset, InputStream body) throws IOException {
+        UploadInfo info = load(userId, id);
+        if (!busy.add(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already receiving data");
+        }
+        try {
+            long current = offset(id, info);
+            if (offset != current) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload-Offset must be " + current);
+            }
+            if (info.url() != null) {
+                return status(id, info, current);
+            }
+
+            try {
+                copy(body, partFile(id), info.length() - current);
+            } finally {
+                // Bytes that arrived before a dropped connection are kept, so the client resumes after them
+                current = Files.size(partFile(id));
+            }
+
+            if (current == info.length()) {
+                info = finish(id, info);
+            }
+            return status(id, info, current);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Discard an upload and its data
+     * @param userId The uploading user
+     * @param id The upload id
+     */
+    public void cancel(Long userId, String id) throws IOException {
+        load(userId, id);
+        delete(id);
+    }
+
+    // Drop uploads that were abandoned or finished and never confirmed
+    @Scheduled(fixedDelayString = "${trip.resumable-upload.cleanup-interval:1h}",
+            initialDelayString = "${trip.resumable-upload.cleanup-interval:1h}")
+    public void purgeExpired() {
+        long now = Instant.now().getEpochSecond();
+        int purged = 0;
+        try (DirectoryStream<Path> infos = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path path : infos) {
+                String id = path.getFileName().toString().replace(".json", "");
+                try {
+                    if (readInfo(id).expiresAt() < now && !busy.contains(id)) {
+                        delete(id);
+                        purged++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot read resumable upload {}: {}", id, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge resumable uploads: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired resumable uploads", purged);
+        }
+    }
+
+    private UploadInfo finish(String id, UploadInfo info) throws IOException {
+        Path part = partFile(id);
+        // Status calls hand out fresh tickets until the upload expires, so the last one runs a TTL past that
+        Instant attachBy = directUploadService.ticketExpiry(Instant.ofEpochSecond(info.expiresAt()));
+        String url = photoUploadService.storeFile(part, info.contentType(), info.fileName(), attachBy);
+        UploadInfo stored = info.stored(photoStorage.objectNameFromUrl(url), url);
+        writeInfo(id, stored);
+        Files.deleteIfExists(part);
+        photoCleanupService.enqueueUnattached(List.of(url), attachBy);
+        return stored;
+    }
+
+    // Copies at most maxBytes; a client sending more than Upload-Length gets 413
+    private void copy(InputStream in, Path target, long maxBytes) throws IOException {
+        long written = 0;
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (written + read > maxBytes) {
+                    channel.write(ByteBuffer.wrap(buffer, 0, (int) (maxBytes - written)));
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Chunk goes past Upload-Length");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                written += read;
+            }
+        }
+    }
+
+    private UploadStatus status(String id, UploadInfo info, long offset) {
+        String ticket = info.objectName() != null ? directUploadService.issueTicket(info.userId(), info.objectName()) : null;
+        return new UploadStatus(id, offset, info.length(), Instant.ofEpochSecond(info.expiresAt()), ticket, info.url());
+    }
+
+    private long offset(String id, UploadInfo info) {
+        if (info.url() != null) {
+            return info.length();
+        }
+        try {
+            return Files.size(partFile(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read upload " + id, e);
+        }
+    }
+
+    private UploadInfo load(Long userId, String id) {
+        if (id == null || !id.matches("[0-9a-f]{32}")) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        UploadInfo info;
+        try {
+            info = readInfo(id);
+        } catch (NoSuchFileException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read upload " + id, e);
+        }
+        // Someone else's upload looks the same as a missing one
+        if (!info.userId().equals(userId) || info.expiresAt() < Instant.now().getEpochSecond()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        return info;
+    }
+
+    private UploadInfo readInfo(String id) throws IOException {
+        return objectMapper.readValue(Files.readAllBytes(infoFile(id)), UploadInfo.class);
+    }
+
+    // Written to a temp file and moved into place so a crash never leaves half a JSON file
+    private void writeInfo(String id, UploadInfo info) throws IOException {
+        Path temp = Files.createTempFile(directory, id, ".tmp");
+        try {
+            Files.write(temp, objectMapper.writeValueAsBytes(info));
+            Files.move(temp, infoFile(id), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void delete(String id) throws IOException {
+        Files.deleteIfExists(partFile(id));
+        Files.deleteIfExists(infoFile(id));
+    }
+
+    private Path partFile(String id) {
+        return directory.resolve(id + ".part");
+    }
+
+    private Path infoFile(String id) {
+        return directory.resolve(id + ".json");
+    }
+}
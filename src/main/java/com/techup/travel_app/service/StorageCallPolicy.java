@@ -0,0 +1,128 @@
+package com.techup.travel_app.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Guards every call to the storage API. Each attempt has a deadline,
+ * idempotent calls are retried with jittered backoff, a circuit breaker stops
+ * calling a storage service that keeps failing, and a bulkhead caps how many
+ * request threads can be waiting on storage at once.
+ * Metrics: resilience4j.circuitbreaker.*, resilience4j.bulkhead.* and
+ * storage.client.retries, plus reactor.netty.* for the connection pool.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "supabase", matchIfMissing = true)
+public class StorageCallPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageCallPolicy.class);
+
+    @Value("${storage.http.call-timeout:60s}")
+    private Duration callTimeout;
+
+    @Value("${storage.http.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${storage.http.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Value("${storage.http.max-concurrent-calls:32}")
+    private int maxConcurrentCalls;
+
+    @Value("${storage.http.bulkhead-max-wait:1s}")
+    private Duration bulkheadMaxWait;
+
+    @Value("${storage.http.circuit-open-duration:30s}")
+    private Duration circuitOpenDuration;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+
+    @PostConstruct
+    public void init() {
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(circuitOpenDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                // Only storage-side failures count; a rejected upload is not an outage
+                .recordException(this::isRetryable)
+                .build());
+        circuitBreaker = circuitBreakers.circuitBreaker("storage");
+
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(bulkheadMaxWait)
+                .build());
+        bulkhead = bulkheads.bulkhead("storage");
+
+        if (meterRegistry != null) {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * Run an idempotent storage call under the policy and wait for its result
+     * @param operation Name used in metrics, e.g. "upload" or "delete"
+     * @param call Creates the call; invoked again for each retry
+     * @return The call's result
+     * @throws io.github.resilience4j.circuitbreaker.CallNotPermittedException if the circuit is open
+     * @throws io.github.resilience4j.bulkhead.BulkheadFullException if too many calls are in flight
+     */
+    public <T> T execute(String operation, Supplier<Mono<T>> call) {
+        return Mono.defer(call)
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                        .jitter(0.5)
+                        .filter(this::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            log.warn("Retrying storage {} after: {}", operation, signal.failure().getMessage());
+                            if (meterRegistry != null) {
+                                meterRegistry.counter("storage.client.retries", "operation", operation).increment();
+                            }
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                // Outermost, so one permit covers the call including its retries
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .block();
+    }
+
+    // Timeouts, connection errors, 5xx and 429 may succeed on a second try; other 4xx will not
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status >= 500 || status == 429 || status == 408;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+}
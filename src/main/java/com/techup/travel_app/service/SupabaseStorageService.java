@@ -1,18 +1,42 @@
 package com.techup.travel_app.service;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
-import reactor.core.publisher.Mono;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
-public class SupabaseStorageService {
+@ConditionalOnProperty(name = "storage.backend", havingValue = "supabase", matchIfMissing = true)
+public class SupabaseStorageService implements PhotoStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(SupabaseStorageService.class);
 
     @Value("${supabase.url}")
     private String supabaseUrl;
@@ -23,57 +47,102 @@ public class SupabaseStorageService {
     @Value("${supabase.apiKey}")
     private String apiKey;
 
-    private final WebClient webClient = WebClient.builder().build();
+    // Chunk size used when streaming uploads from the multipart temp file
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    // Pooled client with timeouts, see StorageClientConfig
+    @Autowired
+    private WebClient storageWebClient;
+
+    @Autowired
+    private StorageCallPolicy storageCallPolicy;
 
     /**
      * Upload a file to Supabase Storage and return public URL
      * @param file The file to upload
+     * @param fileName The object name inside the bucket
      * @return The public URL of the uploaded file
      */
-    public String uploadFile(MultipartFile file) {
-        String original = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file.bin";
-        String fileName = System.currentTimeMillis() + "_" + original;
-        String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucket, fileName);
-
-        System.out.println("Uploading file to: " + uploadUrl);
-        System.out.println("Using bucket: " + bucket);
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
         System.out.println("File size: " + file.getSize() + " bytes");
         System.out.println("Content type: " + file.getContentType());
 
-        byte[] bytes;
+        // Stream the multipart temp file in fixed-size chunks instead of copying it onto the heap;
+        // backpressure from the connection keeps only a few chunks in memory per upload
+        Flux<DataBuffer> body = DataBufferUtils.readInputStream(
+                file::getInputStream, DefaultDataBufferFactory.sharedInstance, STREAM_CHUNK_SIZE);
+
+        return put(fileName, file.getContentType(), file.getSize(), BodyInserters.fromDataBuffers(body));
+    }
+
+    /**
+     * Upload a file from local disk to Supabase Storage and return public URL
+     * @param file The file to upload
+     * @param contentType The MIME type of the file
+     * @param fileName The object name inside the bucket
+     * @return The public URL of the uploaded file
+     */
+    @Override
+    public String uploadFile(Path file, String contentType, String fileName) {
+        long size;
         try {
-            bytes = file.getBytes();
+            size = Files.size(file);
         } catch (IOException e) {
-            System.err.println("Cannot read file bytes: " + e.getMessage());
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot read file bytes", e);
         }
+        // Read lazily per attempt, so a retry streams the file again from the start
+        Flux<DataBuffer> body = DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, STREAM_CHUNK_SIZE);
+        return put(fileName, contentType, size, BodyInserters.fromDataBuffers(body));
+    }
+
+    /**
+     * Upload small generated content (e.g. resized image variants) and return public URL
+     * @param data The bytes to upload
+     * @param contentType The MIME type of the content
+     * @param fileName The object name inside the bucket
+     * @return The public URL of the uploaded object
+     */
+    @Override
+    public String uploadBytes(byte[] data, String contentType, String fileName) {
+        return put(fileName, contentType, data.length, BodyInserters.fromValue(data));
+    }
+
+    private String put(String fileName, String contentType, long contentLength, BodyInserter<?, ? super ClientHttpRequest> body) {
+        String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucket, fileName);
+
+        System.out.println("Uploading file to: " + uploadUrl);
+        System.out.println("Using bucket: " + bucket);
 
         try {
-            webClient.put()
+            // Idempotent: the object name is the content hash and x-upsert overwrites
+            storageCallPolicy.execute("upload", () -> storageWebClient.put()
                 .uri(uploadUrl)
                 .header("Authorization", "Bearer " + apiKey)     // Service Role Key
-                .header("Content-Type", file.getContentType() != null ? file.getContentType() : "application/octet-stream")
+                .header("Content-Type", contentType != null ? contentType : "application/octet-stream")
                 .header("x-upsert", "true") // Allow overwriting files
-                .bodyValue(bytes)
+                .contentLength(contentLength)
+                .body(body)
                 .retrieve()
-                .onStatus(HttpStatusCode::isError, res ->
-                    res.bodyToMono(String.class).defaultIfEmpty("Upload failed").flatMap(msg -> {
-                        System.err.println("Supabase upload error: " + msg);
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase upload failed: " + msg));
-                    })
-                )
-                .toBodilessEntity()
-                .block();
+                .toBodilessEntity());
 
             // Return public URL for immediate access
-            String publicUrl = String.format("%s/storage/v1/object/public/%s/%s", supabaseUrl, bucket, fileName);
+            String publicUrl = publicUrl(fileName);
             System.out.println("Upload successful! Public URL: " + publicUrl);
             return publicUrl;
 
-        } catch (ResponseStatusException ex) {
-            System.err.println("ResponseStatusException: " + ex.getMessage());
-            throw ex;
+        } catch (WebClientResponseException ex) {
+            String msg = ex.getResponseBodyAsString();
+            System.err.println("Supabase upload error: " + msg);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase upload failed: " + msg, ex);
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            log.warn("Supabase storage unavailable: {}", ex.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Photo storage is temporarily unavailable", ex);
         } catch (Exception ex) {
+            if (Exceptions.unwrap(ex) instanceof IOException ioException) {
+                log.warn("Cannot read file bytes: {}", ioException.getMessage());
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot read file bytes", ioException);
+            }
             System.err.println("Unexpected error during upload: " + ex.getMessage());
             ex.printStackTrace();
             throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unexpected error while uploading to Supabase", ex);
@@ -81,28 +150,96 @@ public class SupabaseStorageService {
     }
 
     /**
-     * Delete a file from Supabase Storage
-     * @param fileUrl The public URL of the file to delete
+     * Whether a URL points into our bucket (trips may also hold external image links)
+     * @param url The photo URL
+     * @return true if the object lives in our bucket
      */
-    public void deleteFile(String fileUrl) {
+    @Override
+    public boolean isStoredUrl(String url) {
+        return url != null && url.startsWith(String.format("%s/storage/v1/object/public/%s/", supabaseUrl, bucket));
+    }
+
+    /**
+     * Delete files from Supabase Storage with one bulk-remove request
+     * @param fileUrls The public URLs of the files to delete
+     * @throws WebClientResponseException if storage rejects the request
+     */
+    @Override
+    public void deleteFiles(List<String> fileUrls) {
+        if (fileUrls.isEmpty()) {
+            return;
+        }
+        List<String> names = fileUrls.stream().map(this::objectNameFromUrl).toList();
+        String deleteUrl = String.format("%s/storage/v1/object/%s", supabaseUrl, bucket);
+
+        // Deleting an object twice is harmless, so failed attempts can be retried
+        storageCallPolicy.execute("delete", () -> storageWebClient.method(HttpMethod.DELETE)
+            .uri(deleteUrl)
+            .header("Authorization", "Bearer " + apiKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("prefixes", names))
+            .retrieve()
+            .toBodilessEntity());
+
+        log.debug("Deleted {} file(s) from storage", names.size());
+    }
+
+    /**
+     * Signed upload URL from Supabase. Supabase fixes the lifetime (2 hours) and
+     * cannot cap the size per URL, so maxBytes and ttl are left to the bucket's
+     * own file size limit and to the upload ticket.
+     */
+    @Override
+    public SignedUpload createSignedUpload(String objectName, String contentType, long maxBytes, Duration ttl) {
+        String signUrl = String.format("%s/storage/v1/object/upload/sign/%s/%s", supabaseUrl, bucket, objectName);
+
+        // Asking for another token is harmless, so this can be retried like the other calls
+        SignedUrlResponse signed = storageCallPolicy.execute("sign", () -> storageWebClient.post()
+            .uri(signUrl)
+            .header("Authorization", "Bearer " + apiKey)
+            .header("x-upsert", "true")
+            .retrieve()
+            .bodyToMono(SignedUrlResponse.class));
+        if (signed == null || signed.url() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase did not return a signed upload URL");
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", contentType != null ? contentType : "application/octet-stream");
+        headers.put("x-upsert", "true");
+        return new SignedUpload(supabaseUrl + "/storage/v1" + signed.url(), "PUT", headers);
+    }
+
+    // Body of POST /object/upload/sign: {"url": "/object/upload/sign/<bucket>/<name>?token=..."}
+    private record SignedUrlResponse(String url) {
+    }
+
+    @Override
+    public String publicUrl(String objectName) {
+        return String.format("%s/storage/v1/object/public/%s/%s", supabaseUrl, bucket, objectName);
+    }
+
+    @Override
+    public boolean exists(String objectName) {
         try {
-            // Extract filename from URL
-            String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-            
-            // Build delete URL
-            String deleteUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucket, filename);
-            
-            webClient.delete()
-                .uri(deleteUrl)
-                .header("Authorization", "Bearer " + apiKey)
+            storageCallPolicy.execute("head", () -> storageWebClient.head()
+                .uri(publicUrl(objectName))
                 .retrieve()
-                .toBodilessEntity()
-                .block();
-                
-            System.out.println("File deleted successfully: " + filename);
-            
-        } catch (Exception e) {
-            System.err.println("Failed to delete file: " + e.getMessage());
+                .toBodilessEntity());
+            return true;
+        } catch (WebClientResponseException.NotFound | WebClientResponseException.BadRequest ex) {
+            // Supabase answers 400 for some missing objects
+            return false;
+        }
+    }
+
+    @Override
+    public void download(String url, Path target) throws IOException {
+        try {
+            storageCallPolicy.execute("download", () -> DataBufferUtils.write(
+                storageWebClient.get().uri(url).retrieve().bodyToFlux(DataBuffer.class), target));
+        } catch (RuntimeException ex) {
+            throw new IOException("Cannot download " + url + ": " + ex.getMessage(), ex);
         }
     }
 }
@@ -0,0 +1,57 @@
+package com.techup.travel_app.service;
+
+import org.springframework.stereotype.Component;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits mixed Thai/English text into normalized search terms.
+ * Thai has no spaces between words, so we rely on the JDK's dictionary-based
+ * Thai word BreakIterator instead of splitting on whitespace.
+ */
+@Component
+public class ThaiWordTokenizer {
+
+    private static final Locale THAI = Locale.forLanguageTag("th-TH");
+
+    // BreakIterator is not thread-safe, so keep one per thread
+    private final ThreadLocal<BreakIterator> wordIterator =
+            ThreadLocal.withInitial(() -> BreakIterator.getWordInstance(THAI));
+
+    /**
+     * Tokenize text into lower-cased words, dropping whitespace and punctuation
+     * @param text The text to tokenize (may be null)
+     * @return The list of terms in document order
+     */
+    public List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        BreakIterator iterator = wordIterator.get();
+        iterator.setText(text);
+
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String word = text.substring(start, end).trim();
+            if (isWord(word)) {
+                terms.add(word.toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+
+    // A segment counts as a word if it contains at least one letter or digit
+    private boolean isWord(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isLetterOrDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+package com.techup.travel_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory caches for trip payloads. Trips are read far more often
+ * than they are written, so detail pages, list summaries and feed pages are
+ * served from memory and invalidated by the controller after every write.
+ */
+@Service
+public class TripCacheService {
+
+    @Value("${trip.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${trip.cache.feed-max-size:1000}")
+    private long feedMaxSize;
+
+    @Value("${trip.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, TripDetail> details;
+    private Cache<Long, TripSummary> summaries;
+
+    // Feed pages keyed by "<cursor>|<size>"; any write can reorder the feed, so they are dropped together
+    private Cache<String, TripFeedService.FeedPage> feedPages;
+
+    @PostConstruct
+    public void init() {
+        details = newCache(maxSize);
+        summaries = newCache(maxSize);
+        feedPages = newCache(feedMaxSize);
+
+        // Hit/miss/eviction counters: /actuator/metrics/cache.gets?tag=cache:tripDetails etc.
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, details, "tripDetails");
+            CaffeineCacheMetrics.monitor(meterRegistry, summaries, "tripSummaries");
+            CaffeineCacheMetrics.monitor(meterRegistry, feedPages, "tripFeedPages");
+        }
+    }
+
+    /**
+     * Trip detail from the cache, loading it on a miss
+     * @param tripId The trip id
+     * @param loader Loads the detail, or returns null if the trip does not exist (not cached)
+     * @return The detail, or null if the trip does not exist
+     */
+    public TripDetail getDetail(Long tripId, Function<Long, TripDetail> loader) {
+        return details.get(tripId, loader);
+    }
+
+    /**
+     * Summaries for a list of ids, loading all misses with one call
+     * @param ids The trip ids, in display order
+     * @param loader Loads summaries for the ids that were not cached
+     * @return The summaries in the order of ids; ids that no longer exist are skipped
+     */
+    public List<TripSummary> getSummaries(List<Long> ids, Function<List<Long>, List<TripSummary>> loader) {
+        Map<Long, TripSummary> found = summaries.getAll(ids, missing -> {
+            Map<Long, TripSummary> loaded = new HashMap<>();
+            for (TripSummary summary : loader.apply(new ArrayList<>(missing))) {
+                loaded.put(summary.id(), summary);
+            }
+            return loaded;
+        });
+
+        List<TripSummary> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TripSummary summary = found.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Feed page from the cache, loading it on a miss
+     * @param cursor The feed cursor (null for the first page)
+     * @param size The page size
+     * @param loader Loads the page
+     * @return The feed page
+     */
+    public TripFeedService.FeedPage getFeedPage(String cursor, int size, Supplier<TripFeedService.FeedPage> loader) {
+        String key = (cursor != null ? cursor : "") + "|" + size;
+        return feedPages.get(key, k -> loader.get());
+    }
+
+    /**
+     * Drop everything derived from one trip. Call after the trip is created, updated or deleted.
+     * @param tripId The trip that changed
+     */
+    public void evictTrip(Long tripId) {
+        if (tripId != null) {
+            details.invalidate(tripId);
+            summaries.invalidate(tripId);
+        }
+        feedPages.invalidateAll();
+    }
+
+    /**
+     * Drop everything derived from many trips, clearing the feed pages once.
+     * Call after a batch of trips is created or updated.
+     * @param tripIds The trips that changed
+     */
+    public void evictTrips(Collection<Long> tripIds) {
+        details.invalidateAll(tripIds);
+        summaries.invalidateAll(tripIds);
+        feedPages.invalidateAll();
+    }
+
+    /**
+     * Drop all cached payloads, e.g. when an author's display name changes
+     */
+    public void evictAll() {
+        details.invalidateAll();
+        summaries.invalidateAll();
+        feedPages.invalidateAll();
+    }
+
+    private <K, V> Cache<K, V> newCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.dto.TripSummary;
+import com.techup.travel_app.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cursor-paginated trip feed keyed on (createdAt, id). Each page is a single
+ * index seek, so the cost is the same on page 1 and page 1000. The total is
+ * counted on the first page; later pages reuse it for a short while.
+ */
+@Service
+public class TripFeedService {
+
+    // Below this many rows an exact COUNT(*) is cheap enough to run
+    private static final long EXACT_COUNT_THRESHOLD = 10_000;
+
+    @Value("${trip.feed.total-ttl:30s}")
+    private Duration totalTtl;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    // Last total, reused by cursor pages until it is older than totalTtl
+    private volatile FeedTotal lastTotal;
+
+    private record FeedTotal(long value, boolean estimated, Instant countedAt) {
+    }
+
+    /**
+     * One page of the feed
+     * @param trips The trips on this page, newest first
+     * @param nextCursor Opaque token for the next page, or null on the last page
+     * @param total Number of trips in the feed
+     * @param totalEstimated True if total is the planner estimate rather than an exact count
+     */
+    public record FeedPage(List<TripSummary> trips, String nextCursor, long total, boolean totalEstimated) {
+    }
+
+    /**
+     * Load one page of the feed
+     * @param cursor The nextCursor from the previous page, or null for the first page
+     * @param size The page size
+     * @return The page and the cursor to continue from
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public FeedPage getFeed(String cursor, int size) {
+        // Fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(size + 1);
+
+        List<TripSummary> trips;
+        if (cursor == null || cursor.isBlank()) {
+            trips = tripRepository.findFeed(limit);
+        } else {
+            Position position = decodeCursor(cursor);
+            trips = tripRepository.findFeedAfter(position.createdAt(), position.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (trips.size() > size) {
+            trips = trips.subList(0, size);
+            nextCursor = encodeCursor(trips.get(size - 1));
+        }
+
+        FeedTotal total = lastTotal;
+        boolean firstPage = cursor == null || cursor.isBlank();
+        if (firstPage || total == null || total.countedAt().plus(totalTtl).isBefore(Instant.now())) {
+            total = countTotal();
+            lastTotal = total;
+        }
+
+        return new FeedPage(trips, nextCursor, total.value(), total.estimated());
+    }
+
+    // Helper method to count the feed: exact for small tables, planner estimate for large ones
+    private FeedTotal countTotal() {
+        Long estimate = tripRepository.estimateCount();
+        if (estimate != null && estimate >= EXACT_COUNT_THRESHOLD) {
+            return new FeedTotal(estimate, true, Instant.now());
+        }
+        return new FeedTotal(tripRepository.count(), false, Instant.now());
+    }
+
+    // Position in the feed that a cursor points past
+    record Position(LocalDateTime createdAt, Long id) {
+    }
+
+    // Cursor format: base64url("<createdAt ISO>|<id>"); shared with the reactive feed
+    static String encodeCursor(TripSummary trip) {
+        String raw = trip.createdAt() + "|" + trip.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separator));
+            Long id = Long.parseLong(raw.substring(separator + 1));
+            return new Position(createdAt, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.repository.TripRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index over trip coordinates: a grid of fixed-size
+ * latitude/longitude cells, each holding the trips inside it. A radius query
+ * only looks at the cells overlapping the circle's bounding box and measures
+ * great-circle (haversine) distance for the trips in them, so it never scans
+ * the trips table. Built once at startup and kept up to date by the
+ * controller on every create, update and delete.
+ *
+ * For the map view, trips are clustered on a grid laid out like web map
+ * tiles (4x4 cells per 256px tile, so 64px per cell on screen, roughly a
+ * marker's size). The zoomed-out levels, where a view covers most of the
+ * catalog, are kept precomputed as counts and coordinate sums that each
+ * write adjusts. Deeper
+ * zooms show a small area, so their clusters are built from the trips in
+ * view instead of keeping a nearly one-cell-per-trip grid for every level.
+ */
+@Service
+public class TripGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TripGeoIndex.class);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // Half the Earth's circumference: every point is within this distance
+    private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    // About 5.5 km of latitude per cell; a city-sized radius touches a handful of cells
+    private static final double CELL_DEGREES = 0.05;
+    private static final int ROWS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.ceil(360 / CELL_DEGREES);
+
+    // Starting radius for searches; doubled until enough trips are found
+    private static final double START_RADIUS_KM = 2;
+
+    // Zoom levels with a precomputed cluster grid (zoom 10 cells are about 10 km across)
+    private static final int PRECOMPUTED_CLUSTER_ZOOM = 10;
+
+    // Deepest zoom web maps ask for
+    public static final int MAX_CLUSTER_ZOOM = 22;
+
+    // 2^2 = 4 cluster cells across a map tile
+    private static final int CLUSTER_CELL_BITS = 2;
+
+    // Web Mercator cuts off at this latitude
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    // Cells a single map request may cover: about 100 screens of 1920x1080 in
+    // cluster cells, or a 12x12 degree box in point cells on deep zooms
+    private static final long MAX_CLUSTER_CELLS = 64 * 1024;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // cell key -> trips in that cell
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+
+    // trip id -> its entry, needed to move or remove a trip again
+    private final Map<Long, Point> points = new HashMap<>();
+
+    // zoom -> (cluster cell key -> aggregate)
+    private final List<Map<Long, ClusterCell>> clusterLevels = new ArrayList<>();
+
+    // While a rebuild loads coordinates: trip id -> trip saved since (null when deleted),
+    // replayed over the loaded snapshot so those writes are not lost
+    private Map<Long, Trip> writesDuringRebuild;
+
+    {
+        for (int zoom = 0; zoom <= PRECOMPUTED_CLUSTER_ZOOM; zoom++) {
+            clusterLevels.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * A trip found by a nearby query
+     * @param tripId The trip id
+     * @param distanceKm Great-circle distance from the query point in kilometres
+     */
+    public record Hit(Long tripId, double distanceKm) {
+    }
+
+    /**
+     * Trips grouped into one map marker
+     * @param latitude Average latitude of the trips
+     * @param longitude Average longitude of the trips
+     * @param count Number of trips
+     * @param tripId The trip id when count is 1, otherwise null
+     */
+    public record Cluster(double latitude, double longitude, int count, Long tripId) {
+    }
+
+    private record Point(Long tripId, double latitude, double longitude) {
+    }
+
+    // Running totals; with count 1 the id sum is that trip's id
+    private static final class ClusterCell {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        private long idSum;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            List<Object[]> rows = tripRepository.findCoordinates();
+
+            lock.writeLock().lock();
+            try {
+                cells.clear();
+                points.clear();
+                clusterLevels.forEach(Map::clear);
+                for (Object[] row : rows) {
+                    add((Long) row[0], (Double) row[1], (Double) row[2]);
+                }
+                // The snapshot may predate these; the recorded state is the newer one
+                for (Map.Entry<Long, Trip> write : writesDuringRebuild.entrySet()) {
+                    remove(write.getKey());
+                    if (write.getValue() != null) {
+                        add(write.getKey(), write.getValue().getLatitude(), write.getValue().getLongitude());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Geo index built: {} trips in {} cells in {} ms",
+                    points.size(), cells.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Keep the app running; nearby searches return nothing until the next rebuild
+            log.warn("Failed to build geo index: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Called after a trip is created or updated
+     * @param trip The saved trip
+     */
+    public void onTripSaved(Trip trip) {
+        if (trip == null || trip.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            replace(trip);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called after many trips are created at once; takes the lock once for all of them
+     * @param trips The saved trips
+     */
+    public void onTripsSaved(List<Trip> trips) {
+        lock.writeLock().lock();
+        try {
+            for (Trip trip : trips) {
+                if (trip != null && trip.getId() != null) {
+                    replace(trip);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called after a trip is deleted
+     * @param tripId The id of the deleted trip
+     */
+    public void onTripDeleted(Long tripId) {
+        if (tripId == null) return;
+        lock.writeLock().lock();
+        try {
+            remove(tripId);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(tripId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Trips within a radius, nearest first
+     * @param latitude Latitude of the query point in degrees
+     * @param longitude Longitude of the query point in degrees
+     * @param radiusKm The radius in kilometres
+     * @param limit Maximum number of trips to return
+     * @return The nearest trips inside the radius, closest first
+     */
+    public List<Hit> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        return search(latitude, longitude, limit, radiusKm);
+    }
+
+    /**
+     * The k trips closest to a point, however far away they are
+     * @param latitude Latitude of the query point in degrees
+     * @param longitude Longitude of the query point in degrees
+     * @param k Number of trips to return
+     * @return Up to k trips, closest first
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k) {
+        return search(latitude, longitude, k, MAX_DISTANCE_KM);
+    }
+
+    /**
+     * Map clusters inside a bounding box
+     * @param south Southern edge latitude
+     * @param west Western edge longitude; greater than east when the box crosses the antimeridian
+     * @param north Northern edge latitude
+     * @param east Eastern edge longitude
+     * @param zoom Web map zoom level, 0 to MAX_CLUSTER_ZOOM
+     * @return One cluster per occupied cell
+     * @throws IllegalArgumentException if the box covers too many cells at this zoom
+     */
+    public List<Cluster> clusters(double south, double west, double north, double east, int zoom) {
+        int level = Math.min(Math.max(zoom, 0), MAX_CLUSTER_ZOOM);
+        if (level > PRECOMPUTED_CLUSTER_ZOOM) {
+            return clustersInView(south, west, north, east, level);
+        }
+        int bits = level + CLUSTER_CELL_BITS;
+        long size = 1L << bits;
+
+        long minX = mercatorX(west, bits);
+        long maxX = mercatorX(east, bits);
+        long minY = mercatorY(north, bits);
+        long maxY = mercatorY(south, bits);
+        // A box crossing the antimeridian wraps around to the first columns
+        long columns = maxX >= minX ? maxX - minX + 1 : size - minX + maxX + 1;
+        long rows = maxY - minY + 1;
+        if (rows <= 0 || columns * rows > MAX_CLUSTER_CELLS) {
+            throw new IllegalArgumentException("Bounding box too large for zoom " + zoom);
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, ClusterCell> grid = clusterLevels.get(level);
+            if (columns * rows > grid.size()) {
+                // Sparse level: walk the occupied cells instead of the box
+                for (Map.Entry<Long, ClusterCell> cell : grid.entrySet()) {
+                    long x = cell.getKey() % size;
+                    long y = cell.getKey() / size;
+                    boolean inColumns = maxX >= minX ? x >= minX && x <= maxX : x >= minX || x <= maxX;
+                    if (inColumns && y >= minY && y <= maxY) {
+                        clusters.add(toCluster(cell.getValue()));
+                    }
+                }
+            } else {
+                for (long y = minY; y <= maxY; y++) {
+                    for (long i = 0; i < columns; i++) {
+                        ClusterCell cell = grid.get(y * size + (minX + i) % size);
+                        if (cell != null) {
+                            clusters.add(toCluster(cell));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return clusters;
+    }
+
+    // Deep zoom: group the trips inside the box on the fly, found through the point grid
+    private List<Cluster> clustersInView(double south, double west, double north, double east, int level) {
+        int minRow = row(south);
+        int maxRow = row(north);
+        int minColumn = column(west);
+        // column() wraps 180 around to the first column, but here it is the right edge
+        int maxColumn = east >= 180 ? COLUMNS - 1 : column(east);
+        long columns = maxColumn >= minColumn ? maxColumn - minColumn + 1 : COLUMNS - minColumn + maxColumn + 1;
+        if (maxRow < minRow || columns * (maxRow - minRow + 1) > MAX_CLUSTER_CELLS) {
+            throw new IllegalArgumentException("Bounding box too large for zoom " + level);
+        }
+
+        int bits = level + CLUSTER_CELL_BITS;
+        long size = 1L << bits;
+        boolean wraps = west > east;
+        Map<Long, ClusterCell> grid = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (long i = 0; i < columns; i++) {
+                    List<Point> cell = cells.get(key(row, (int) ((minColumn + i) % COLUMNS)));
+                    if (cell == null) continue;
+                    for (Point point : cell) {
+                        // Grid cells stick out past the box edges
+                        boolean inLongitude = wraps
+                                ? point.longitude() >= west || point.longitude() <= east
+                                : point.longitude() >= west && point.longitude() <= east;
+                        if (!inLongitude || point.latitude() < south || point.latitude() > north) continue;
+                        long key = mercatorY(point.latitude(), bits) * size + mercatorX(point.longitude(), bits);
+                        addToCell(grid.computeIfAbsent(key, k -> new ClusterCell()), point, 1);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Cluster> clusters = new ArrayList<>(grid.size());
+        for (ClusterCell cell : grid.values()) {
+            clusters.add(toCluster(cell));
+        }
+        return clusters;
+    }
+
+    /**
+     * Great-circle distance between two points
+     * @param lat1 Latitude of the first point in degrees
+     * @param lon1 Longitude of the first point in degrees
+     * @param lat2 Latitude of the second point in degrees
+     * @param lon2 Longitude of the second point in degrees
+     * @return The distance in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // The limit nearest trips within maxRadiusKm. Everything within r is closer than
+    // anything outside it, so the search grows r from a small circle and stops as
+    // soon as r holds limit trips; a dense city never has to sort the whole radius.
+    private List<Hit> search(double latitude, double longitude, int limit, double maxRadiusKm) {
+        lock.readLock().lock();
+        try {
+            double radiusKm = Math.min(START_RADIUS_KM, maxRadiusKm);
+            List<Hit> hits = collect(latitude, longitude, radiusKm);
+            while (hits.size() < limit && hits.size() < points.size() && radiusKm < maxRadiusKm) {
+                radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+                hits = collect(latitude, longitude, radiusKm);
+            }
+            return nearest(hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the read lock. All trips within the radius, unordered.
+    private List<Hit> collect(double latitude, double longitude, double radiusKm) {
+        List<Hit> hits = new ArrayList<>();
+        if (points.isEmpty()) {
+            return hits;
+        }
+
+        // Bounding box of the circle in cells
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        int minRow = row(latitude - dLat);
+        int maxRow = row(latitude + dLat);
+        double maxAbsLatitude = Math.abs(latitude) + dLat;
+        int columnSpan = COLUMNS;
+        if (maxAbsLatitude < 89.9) {
+            // Longitude degrees shrink towards the poles, widest at the box edge nearest one
+            double dLon = dLat / Math.cos(Math.toRadians(maxAbsLatitude));
+            columnSpan = (int) Math.ceil(dLon / CELL_DEGREES);
+        }
+        boolean allColumns = 2L * columnSpan + 1 >= COLUMNS;
+        int centerColumn = column(longitude);
+
+        long boxCells = (long) (maxRow - minRow + 1) * (allColumns ? COLUMNS : 2L * columnSpan + 1);
+        if (boxCells > cells.size()) {
+            // Large radius over a sparse grid: cheaper to walk the occupied cells
+            for (Map.Entry<Long, List<Point>> cell : cells.entrySet()) {
+                int row = (int) (cell.getKey() / COLUMNS);
+                int column = (int) (cell.getKey() % COLUMNS);
+                if (row < minRow || row > maxRow) continue;
+                if (!allColumns && columnDistance(column, centerColumn) > columnSpan) continue;
+                addHits(cell.getValue(), latitude, longitude, dLat, radiusKm, hits);
+            }
+            return hits;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            if (allColumns) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    addHits(cells.get(key(row, column)), latitude, longitude, dLat, radiusKm, hits);
+                }
+            } else {
+                for (int offset = -columnSpan; offset <= columnSpan; offset++) {
+                    // Wraps around the antimeridian
+                    int column = Math.floorMod(centerColumn + offset, COLUMNS);
+                    addHits(cells.get(key(row, column)), latitude, longitude, dLat, radiusKm, hits);
+                }
+            }
+        }
+        return hits;
+    }
+
+    private void addHits(List<Point> cell, double latitude, double longitude, double dLat,
+                         double radiusKm, List<Hit> hits) {
+        if (cell == null) return;
+        for (Point point : cell) {
+            // Cheap latitude check before the trigonometry
+            if (Math.abs(point.latitude() - latitude) > dLat) continue;
+            double distance = haversineKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance <= radiusKm) {
+                hits.add(new Hit(point.tripId(), distance));
+            }
+        }
+    }
+
+    // Closest first; newer trips (higher id) first on ties
+    private List<Hit> nearest(List<Hit> hits, int limit) {
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm)
+                .thenComparing(Hit::tripId, Comparator.reverseOrder()));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    // Caller must hold the write lock
+    private void replace(Trip trip) {
+        remove(trip.getId());
+        add(trip.getId(), trip.getLatitude(), trip.getLongitude());
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(trip.getId(), trip);
+        }
+    }
+
+    // Caller must hold the write lock. Trips without coordinates are not indexed.
+    private void add(Long tripId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null
+                || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return;
+        }
+        Point point = new Point(tripId, latitude, longitude);
+        points.put(tripId, point);
+        cells.computeIfAbsent(key(row(latitude), column(longitude)), k -> new ArrayList<>()).add(point);
+        updateClusters(point, 1);
+    }
+
+    // Caller must hold the write lock
+    private void remove(Long tripId) {
+        Point point = points.remove(tripId);
+        if (point == null) return;
+        updateClusters(point, -1);
+
+        long key = key(row(point.latitude()), column(point.longitude()));
+        List<Point> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(point);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    // Caller must hold the write lock. Adds (+1) or removes (-1) a point at every precomputed level.
+    private void updateClusters(Point point, int sign) {
+        int finestBits = PRECOMPUTED_CLUSTER_ZOOM + CLUSTER_CELL_BITS;
+        long finestX = mercatorX(point.longitude(), finestBits);
+        long finestY = mercatorY(point.latitude(), finestBits);
+        for (int level = 0; level <= PRECOMPUTED_CLUSTER_ZOOM; level++) {
+            // Each level up halves the grid, so its cell is the finest cell shifted down
+            int shift = PRECOMPUTED_CLUSTER_ZOOM - level;
+            long key = (finestY >> shift) * (1L << (level + CLUSTER_CELL_BITS)) + (finestX >> shift);
+            Map<Long, ClusterCell> grid = clusterLevels.get(level);
+            ClusterCell cell = grid.computeIfAbsent(key, k -> new ClusterCell());
+            addToCell(cell, point, sign);
+            if (cell.count <= 0) {
+                grid.remove(key);
+            }
+        }
+    }
+
+    private static void addToCell(ClusterCell cell, Point point, int sign) {
+        cell.count += sign;
+        cell.latitudeSum += sign * point.latitude();
+        cell.longitudeSum += sign * point.longitude();
+        cell.idSum += sign * point.tripId();
+    }
+
+    // Coordinates rounded to 5 decimals (about 1 m), plenty for a marker
+    private static Cluster toCluster(ClusterCell cell) {
+        return new Cluster(
+                Math.round(cell.latitudeSum / cell.count * 1e5) / 1e5,
+                Math.round(cell.longitudeSum / cell.count * 1e5) / 1e5,
+                cell.count,
+                cell.count == 1 ? cell.idSum : null);
+    }
+
+    // Web Mercator tile column at the given number of zoom bits
+    private static long mercatorX(double longitude, int bits) {
+        long size = 1L << bits;
+        long x = (long) Math.floor((longitude + 180) / 360 * size);
+        return Math.min(Math.max(x, 0), size - 1);
+    }
+
+    // Web Mercator tile row at the given number of zoom bits (row 0 is the north edge)
+    private static long mercatorY(double latitude, int bits) {
+        long size = 1L << bits;
+        double clamped = Math.toRadians(Math.min(Math.max(latitude, -MAX_MERCATOR_LATITUDE), MAX_MERCATOR_LATITUDE));
+        double y = (1 - Math.log(Math.tan(clamped) + 1 / Math.cos(clamped)) / Math.PI) / 2;
+        return Math.min(Math.max((long) Math.floor(y * size), 0), size - 1);
+    }
+
+    private static int row(double latitude) {
+        return Math.min(Math.max((int) Math.floor((latitude + 90) / CELL_DEGREES), 0), ROWS - 1);
+    }
+
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+    }
+
+    private static long key(int row, int column) {
+        return (long) row * COLUMNS + column;
+    }
+
+    // Distance in columns going either way around the globe
+    private static int columnDistance(int a, int b) {
+        int d = Math.abs(a - b);
+        return Math.min(d, COLUMNS - d);
+    }
+}
@@ -0,0 +1,46 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.Trip;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Full-text trip search. The active implementation is chosen with the
+ * trip.search.backend property: index (default), postgres or jpql.
+ */
+public interface TripSearchBackend {
+
+    /**
+     * Search trips, best match first
+     * @param query The raw user query
+     * @param pageable The requested page
+     * @return One page of matching trip ids in relevance order
+     */
+    Page<Long> search(String query, Pageable pageable);
+
+    /**
+     * Called after a trip is created or updated
+     * @param trip The saved trip
+     */
+    default void onTripSaved(Trip trip) {
+    }
+
+    /**
+     * Called after many trips are created at once (batch create, import)
+     * @param trips The saved trips
+     */
+    default void onTripsSaved(List<Trip> trips) {
+        for (Trip trip : trips) {
+            onTripSaved(trip);
+        }
+    }
+
+    /**
+     * Called after a trip is deleted
+     * @param tripId The id of the deleted trip
+     */
+    default void onTripDeleted(Long tripId) {
+    }
+}
@@ -0,0 +1,333 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.repository.TripRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over trip text fields, ranked with BM25.
+ * Built once at startup and kept up to date by the controller on every
+ * create, update and delete, so searches never scan the trips table.
+ */
+@Service
+@ConditionalOnProperty(name = "trip.search.backend", havingValue = "index", matchIfMissing = true)
+public class TripSearchIndex implements TripSearchBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(TripSearchIndex.class);
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Title words count more than words in the description or tags
+    private static final int TITLE_WEIGHT = 2;
+
+    // Cap on how many indexed terms a trailing query prefix can expand to;
+    // the terms found in the most trips are kept
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ThaiWordTokenizer tokenizer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (trip id -> weighted term frequency); sorted for prefix lookups
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // trip id -> (term -> weighted term frequency), needed to remove a trip again
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength = 0;
+
+    // While a rebuild loads trips: trip id -> trip saved since (null when deleted),
+    // replayed over the loaded snapshot so those writes are not lost
+    private Map<Long, Trip> writesDuringRebuild;
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            List<Trip> trips = tripRepository.findAll();
+
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                documents.clear();
+                documentLengths.clear();
+                totalLength = 0;
+                for (Trip trip : trips) {
+                    addDocument(trip);
+                }
+                // The snapshot may predate these; the recorded state is the newer one
+                for (Map.Entry<Long, Trip> write : writesDuringRebuild.entrySet()) {
+                    removeDocument(write.getKey());
+                    if (write.getValue() != null) {
+                        addDocument(write.getValue());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            ready = true;
+            log.info("Search index built: {} trips, {} terms in {} ms",
+                    trips.size(), postings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Keep the app running; searches fall back to the database query
+            log.warn("Failed to build search index: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void onTripSaved(Trip trip) {
+        if (trip == null || trip.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            replaceDocument(trip);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onTripsSaved(List<Trip> trips) {
+        lock.writeLock().lock();
+        try {
+            for (Trip trip : trips) {
+                if (trip != null && trip.getId() != null) {
+                    replaceDocument(trip);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onTripDeleted(Long tripId) {
+        if (tripId == null) return;
+        lock.writeLock().lock();
+        try {
+            removeDocument(tripId);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(tripId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        if (!ready) {
+            return tripRepository.searchByTitleOrTags(query, pageable);
+        }
+
+        List<Long> ids = searchIds(query);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(new ArrayList<>(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    /**
+     * Rank trip ids for a query. Every query word must match (the last one may
+     * match as a prefix, so partially typed words still find results).
+     * @param query The raw user query
+     * @return Matching trip ids ordered by BM25 score
+     */
+    public List<Long> searchIds(String query) {
+        List<String> queryTerms = tokenizer.tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return new ArrayList<>();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean isLast = i == queryTerms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(queryTerms.get(i), isLast, docCount, avgLength);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only trips matching every query word
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            // A partially typed Thai word can be segmented into fragments that match
+            // nothing on their own, so also try the whole query as one prefix
+            String compact = query.trim().toLowerCase(Locale.ROOT);
+            if (queryTerms.size() > 1 && compact.indexOf(' ') < 0) {
+                Map<Long, Double> prefixScores = scoreTerm(compact, true, docCount, avgLength);
+                for (Map.Entry<Long, Double> entry : prefixScores.entrySet()) {
+                    scores.merge(entry.getKey(), entry.getValue(), Math::max);
+                }
+            }
+
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // BM25 contribution of one query word; the last word also matches indexed terms it prefixes
+    private Map<Long, Double> scoreTerm(String term, boolean allowPrefix, int docCount, double avgLength) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        List<Map<Long, Integer>> matches = new ArrayList<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            matches.add(exact);
+        }
+        if (allowPrefix) {
+            matches.addAll(postings.subMap(term, false, term + Character.MAX_VALUE, false).values());
+            if (matches.size() > MAX_PREFIX_EXPANSIONS) {
+                // Keep the exact word, then the expansions found in the most trips (not the lexically first)
+                int from = exact != null ? 1 : 0;
+                matches.subList(from, matches.size()).sort(Comparator.<Map<Long, Integer>>comparingInt(Map::size).reversed());
+                matches = matches.subList(0, MAX_PREFIX_EXPANSIONS);
+            }
+        }
+
+        for (Map<Long, Integer> posting : matches) {
+            int df = posting.size();
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                int tf = entry.getValue();
+                int length = documentLengths.getOrDefault(entry.getKey(), 0);
+                double norm = tf + K1 * (1 - B + B * length / avgLength);
+                double score = idf * (tf * (K1 + 1)) / norm;
+                // A trip matching several expansions of the same prefix keeps its best one
+                scores.merge(entry.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    // Caller must hold the write lock
+    private void replaceDocument(Trip trip) {
+        removeDocument(trip.getId());
+        addDocument(trip);
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(trip.getId(), trip);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void addDocument(Trip trip) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addField(termFrequencies, trip.getTitle(), TITLE_WEIGHT);
+        addField(termFrequencies, trip.getDescription(), 1);
+        addField(termFrequencies, trip.getLocation(), 1);
+        addField(termFrequencies, trip.getProvince(), 1);
+        for (String tag : trip.getTagsArray()) {
+            addField(termFrequencies, tag, 1);
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(trip.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+
+        documents.put(trip.getId(), termFrequencies);
+        documentLengths.put(trip.getId(), length);
+        totalLength += length;
+    }
+
+    // Caller must hold the write lock
+    private void removeDocument(Long tripId) {
+        Map<String, Integer> termFrequencies = documents.remove(tripId);
+        if (termFrequencies == null) return;
+
+        for (String term : termFrequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(tripId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        Integer length = documentLengths.remove(tripId);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+
+    private void addField(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String term : tokenizer.tokenize(text)) {
+            termFrequencies.merge(term, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.techup.travel_app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.techup.travel_app.dto.TripRecord;
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.entity.User;
+import com.techup.travel_app.repository.TripRepository;
+import com.techup.travel_app.util.TripValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves the whole trip catalog in and out as NDJSON (one TripRecord per line).
+ * Both directions hold at most one batch of trips in memory, however large the
+ * catalog is: the export reads through a database cursor and empties the
+ * persistence context as it goes, the import reads the request line by line
+ * and saves every batch in its own transaction. Lines are checked like the
+ * batch create endpoint before they join a batch, so an invalid line is
+ * skipped on its own; a batch the database still rejects is counted as
+ * skipped and the import goes on with the next one.
+ */
+@Service
+public class TripTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripTransferService.class);
+
+    // Export: detach what has been written after this many rows (same as the fetch size)
+    private static final int EXPORT_CLEAR_INTERVAL = Integer.parseInt(TripRepository.EXPORT_FETCH_SIZE);
+
+    // Import: only the first few bad lines are reported back
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    @Value("${trip.transfer.import-batch-size:500}")
+    private int importBatchSize;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProvinceLocator provinceLocator;
+
+    @Autowired
+    private TripSearchBackend tripSearchBackend;
+
+    @Autowired
+    private TripGeoIndex tripGeoIndex;
+
+    @Autowired
+    private TripCacheService tripCacheService;
+
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+
+    /**
+     * Outcome of an import
+     * @param imported Trips saved
+     * @param skipped Lines that could not be imported
+     * @param errors "line N: reason" for the first skipped lines
+     */
+    public record ImportResult(int imported, int skipped, List<String> errors) {
+    }
+
+    /**
+     * Write every trip as one JSON line, in id order
+     * @param out The stream to write to (left open)
+     * @return The number of trips written
+     */
+    @Transactional(readOnly = true)
+    public long exportTo(OutputStream out) throws IOException {
+        // Output is flushed by the generator's buffer, not once per row
+        ObjectWriter writer = objectMapper.writerFor(TripRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<Trip> trips = tripRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // No separator between root values: each line ends with its own newline
+            generator.setRootValueSeparator(null);
+            Iterator<Trip> iterator = trips.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, TripRecord.from(iterator.next()));
+                generator.writeRaw('\n');
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    // Drops the written trips and the author proxies they pulled in
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Create trips from NDJSON lines. Ids in the input are ignored (every line
+     * becomes a new trip) and all trips are owned by the importing user;
+     * createdAt is kept when present so imported trips keep their feed position.
+     * @param in UTF-8 NDJSON, blank lines allowed
+     * @param authorId The importing user
+     * @return Counts and the first errors
+     */
+    public ImportResult importFrom(InputStream in, Long authorId) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(TripRecord.class);
+        List<Trip> batch = new ArrayList<>(importBatchSize);
+        List<String> errors = new ArrayList<>();
+        int imported = 0;
+        int skipped = 0;
+        int lineNumber = 0;
+        int batchFirstLine = 0;
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                try {
+                    Trip trip = toTrip(reader.readValue(line), authorId);
+                    if (batch.isEmpty()) {
+                        batchFirstLine = lineNumber;
+                    }
+                    batch.add(trip);
+                } catch (IOException | IllegalArgumentException e) {
+                    skipped++;
+                    report(errors, "line " + lineNumber + ": " + e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= importBatchSize) {
+                    int size = batch.size();
+                    int saved = saveBatch(batch, errors, batchFirstLine, lineNumber);
+                    imported += saved;
+                    skipped += size - saved;
+                }
+            }
+        } finally {
+            // Lines read before a failure are still saved
+            if (!batch.isEmpty()) {
+                int size = batch.size();
+                int saved = saveBatch(batch, errors, batchFirstLine, lineNumber);
+                imported += saved;
+                skipped += size - saved;
+            }
+            if (imported > 0) {
+                feedSnapshotService.invalidate();
+            }
+        }
+        return new ImportResult(imported, skipped, errors);
+    }
+
+    // Helper method to turn one import line into a new trip
+    // (same field checks as the batch create, so one bad line cannot fail a whole batch)
+    private Trip toTrip(TripRecord record, Long authorId) {
+        String reason = TripValidator.validate(record);
+        if (reason != null) {
+            throw new IllegalArgumentException(reason);
+        }
+        Trip trip = new Trip();
+        trip.setTitle(record.title());
+        trip.setDescription(record.description());
+        trip.setPhotos(record.photos());
+        trip.setTags(record.tags());
+        trip.setLatitude(record.latitude());
+        trip.setLongitude(record.longitude());
+        trip.setLocation(record.location());
+        trip.setProvince(record.province());
+        trip.setLocationLink(record.locationLink());
+        trip.setCreatedAt(record.createdAt());
+        if (!trip.hasProvince()) {
+            // Same as the create endpoint: coordinates first, then a province named in the tags
+            trip.setProvince(provinceLocator.resolve(trip.getLatitude(), trip.getLongitude(), trip.getTagsArray()));
+        }
+        User author = new User();
+        author.setId(authorId);
+        trip.setAuthor(author);
+        return trip;
+    }
+
+    // Helper method to save one batch (one transaction) and update the indexes once for the
+    // whole batch; a batch the database rejects is rolled back, reported and not retried
+    private int saveBatch(List<Trip> batch, List<String> errors, int firstLine, int lastLine) {
+        try {
+            List<Trip> saved = tripRepository.saveAll(batch);
+            List<Long> ids = new ArrayList<>(saved.size());
+            for (Trip trip : saved) {
+                ids.add(trip.getId());
+            }
+            tripSearchBackend.onTripsSaved(saved);
+            tripGeoIndex.onTripsSaved(saved);
+            tripCacheService.evictTrips(ids);
+            return saved.size();
+        } catch (Exception e) {
+            log.warn("Failed to import lines {}-{}: {}", firstLine, lastLine, e.getMessage());
+            report(errors, "lines " + firstLine + "-" + lastLine + ": batch not saved (" + rootMessage(e) + ")");
+            return 0;
+        } finally {
+            // A failed batch is rolled back and not retried
+            batch.clear();
+            // With open-in-view the request's persistence context would otherwise keep every saved trip
+            entityManager.clear();
+        }
+    }
+
+    private void report(List<String> errors, String error) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    // The database's own message (e.g. "value too long") is more useful than Spring's wrapper
+    private String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,117 @@
+package com.techup.travel_app.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signatures for upload tickets and locally signed upload URLs,
+ * so neither needs server-side state. The key (storage.signing-key) must be
+ * at least 32 bytes and not the JWT secret: a leak of one must not let anyone
+ * forge the other. It is only needed by direct and resumable uploads, so it
+ * is checked when something is first signed; without it those endpoints
+ * answer 503 and the rest of the app runs as before.
+ */
+@Component
+public class UploadSigner {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSigner.class);
+
+    // At least 256 bits, the HMAC-SHA256 block output size
+    private static final int MIN_KEY_BYTES = 32;
+
+    @Value("${storage.signing-key:}")
+    private String signingKey;
+
+    @Value("${jwt.secret:}")
+    private String jwtSecret;
+
+    private volatile SecretKeySpec key;
+
+    // Warn at startup; failing here would stop installs that never use direct uploads
+    @PostConstruct
+    public void init() {
+        String problem = keyProblem();
+        if (problem != null) {
+            log.warn("Direct and resumable uploads are disabled: {}", problem);
+        }
+    }
+
+    /**
+     * Fail unless a usable signing key is configured
+     * @throws ResponseStatusException 503 if storage.signing-key is missing or unsafe
+     */
+    public void requireKey() {
+        key();
+    }
+
+    /**
+     * Sign a payload
+     * @param payload The text to sign
+     * @return URL-safe base64 signature
+     */
+    public String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key());
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Check a signature in constant time
+     * @param payload The signed text
+     * @param signature The signature to check
+     * @return true if the signature matches
+     */
+    public boolean verify(String payload, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(payload).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private SecretKeySpec key() {
+        SecretKeySpec current = key;
+        if (current == null) {
+            String problem = keyProblem();
+            if (problem != null) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Direct uploads are not configured on this server");
+            }
+            current = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+            key = current;
+        }
+        return current;
+    }
+
+    // Helper method to check the configured key, returns null if it can be used
+    private String keyProblem() {
+        if (signingKey == null || signingKey.isBlank()) {
+            return "storage.signing-key (STORAGE_SIGNING_KEY) is not set";
+        }
+        if (signingKey.equals(jwtSecret)) {
+            return "storage.signing-key must not be the same as jwt.secret";
+        }
+        if (signingKey.getBytes(StandardCharsets.UTF_8).length < MIN_KEY_BYTES) {
+            return "storage.signing-key must be at least " + MIN_KEY_BYTES + " bytes";
+        }
+        return null;
+    }
+}
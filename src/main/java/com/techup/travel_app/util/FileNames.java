@@ -0,0 +1,26 @@
+package com.techup.travel_app.util;
+
+import java.util.Locale;
+
+/**
+ * Object names for uploaded files: the stored name is generated, only a short
+ * extension from the client's file name is kept.
+ */
+public final class FileNames {
+
+    private FileNames() {
+    }
+
+    /**
+     * ".jpg" etc. from the original name, so the stored object keeps a recognisable type
+     * @param fileName The client's file name (may be null)
+     * @return The lower-case extension with its dot, or "" if there is none or it looks unsafe
+     */
+    public static String extension(String fileName) {
+        if (fileName == null) return "";
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) return "";
+        String extension = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,5}") ? "." + extension : "";
+    }
+}
@@ -0,0 +1,153 @@
+package com.techup.travel_app.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds the Thai province (or one of the supported countries) a trip tag refers to.
+ * All names are compiled once into an Aho–Corasick automaton, so checking a tag
+ * is a single pass over its characters no matter how many names there are.
+ *
+ * Names that are also everyday Thai words (เลย, ตาก, น่าน, แพร่) would match inside
+ * unrelated tags, so they only count when the whole tag is the name or it is
+ * written with the จังหวัด prefix.
+ */
+public final class ProvinceResolver {
+
+    // The 77 provinces, Bangkok included, plus the countries trips are posted for
+    private static final String[] NAMES = {
+            "กรุงเทพมหานคร", "กระบี่", "กาญจนบุรี", "กาฬสินธุ์", "กำแพงเพชร", "ขอนแก่น", "จันทบุรี",
+            "ฉะเชิงเทรา", "ชลบุรี", "ชัยนาท", "ชัยภูมิ", "ชุมพร", "เชียงราย", "เชียงใหม่", "ตรัง", "ตราด",
+            "ตาก", "นครนายก", "นครปฐม", "นครพนม", "นครราชสีมา", "นครศรีธรรมราช", "นครสวรรค์", "นนทบุรี",
+            "นราธิวาส", "น่าน", "บึงกาฬ", "บุรีรัมย์", "ปทุมธานี", "ประจวบคีรีขันธ์", "ปราจีนบุรี", "ปัตตานี",
+            "พระนครศรีอยุธยา", "พะเยา", "พังงา", "พัทลุง", "พิจิตร", "พิษณุโลก", "เพชรบุรี", "เพชรบูรณ์",
+            "แพร่", "ภูเก็ต", "มหาสารคาม", "มุกดาหาร", "แม่ฮ่องสอน", "ยโสธร", "ยะลา", "ร้อยเอ็ด", "ระนอง",
+            "ระยอง", "ราชบุรี", "ลพบุรี", "ลำปาง", "ลำพูน", "เลย", "ศรีสะเกษ", "สกลนคร", "สงขลา", "สตูล",
+            "สมุทรปราการ", "สมุทรสงคราม", "สมุทรสาคร", "สระแก้ว", "สระบุรี", "สิงห์บุรี", "สุโขทัย",
+            "สุพรรณบุรี", "สุราษฎร์ธานี", "สุรินทร์", "หนองคาย", "หนองบัวลำภู", "อ่างทอง", "อำนาจเจริญ",
+            "อุดรธานี", "อุตรดิตถ์", "อุทัยธานี", "อุบลราชธานี",
+            "ไต้หวัน", "ญี่ปุ่น", "ฝรั่งเศส", "ฟินแลนด์"
+    };
+
+    // Common short forms, mapped to the official name
+    private static final String[][] ALIASES = {
+            {"กรุงเทพฯ", "กรุงเทพมหานคร"}, {"กรุงเทพ", "กรุงเทพมหานคร"}, {"กทม", "กรุงเทพมหานคร"},
+            {"อยุธยา", "พระนครศรีอยุธยา"}, {"โคราช", "นครราชสีมา"}
+    };
+
+    private static final String[] AMBIGUOUS = {"เลย", "ตาก", "น่าน", "แพร่"};
+
+    private static final String PROVINCE_PREFIX = "จังหวัด";
+
+    // Whole-tag lookup: every name and alias, including the ambiguous ones
+    private static final Map<String, String> EXACT = new HashMap<>();
+
+    private static final Node ROOT = new Node();
+
+    static {
+        Map<String, String> keywords = new LinkedHashMap<>();
+        for (String name : NAMES) {
+            keywords.put(name, name);
+        }
+        for (String[] alias : ALIASES) {
+            keywords.put(alias[0], alias[1]);
+        }
+        EXACT.putAll(keywords);
+        for (String name : AMBIGUOUS) {
+            // Only safe inside longer text with the prefix, e.g. "เที่ยวจังหวัดน่าน"
+            keywords.remove(name);
+            keywords.put(PROVINCE_PREFIX + name, name);
+        }
+        keywords.forEach(ProvinceResolver::addKeyword);
+        buildFailureLinks();
+    }
+
+    private ProvinceResolver() {
+    }
+
+    /**
+     * Resolve the province from a trip's tags
+     * @param tags The tags in display order (may be null)
+     * @return The official name found in the first tag that mentions one, or null if none does
+     */
+    public static String find(String[] tags) {
+        if (tags == null) return null;
+        for (String tag : tags) {
+            String name = find(tag);
+            if (name != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the province mentioned in one piece of text
+     * @param text The text to scan (may be null)
+     * @return The official name of the first name found, or null
+     */
+    public static String find(String text) {
+        if (text == null) return null;
+        String trimmed = text.trim();
+        String exact = EXACT.get(trimmed);
+        if (exact != null) {
+            return exact;
+        }
+
+        Node node = ROOT;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            while (node != ROOT && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, ROOT);
+            if (node.match != null) {
+                return node.match;
+            }
+        }
+        return null;
+    }
+
+    // Helper method to add one keyword to the trie
+    private static void addKeyword(String keyword, String name) {
+        Node node = ROOT;
+        for (int i = 0; i < keyword.length(); i++) {
+            node = node.next.computeIfAbsent(keyword.charAt(i), c -> new Node());
+        }
+        node.match = name;
+    }
+
+    // Breadth-first: each node falls back to the longest proper suffix that is also in the trie
+    private static void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : ROOT.next.values()) {
+            child.fail = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                Node child = edge.getValue();
+                Node fail = node.fail;
+                while (fail != ROOT && !fail.next.containsKey(edge.getKey())) {
+                    fail = fail.fail;
+                }
+                child.fail = fail.next.getOrDefault(edge.getKey(), ROOT);
+                if (child.match == null) {
+                    // A keyword ending here inside a longer one still counts
+                    child.match = child.fail.match;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        private String match;
+    }
+}
@@ -0,0 +1,141 @@
+package com.techup.travel_app.util;
+
+import com.techup.travel_app.dto.TripRecord;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field checks for trips created in bulk: the batch create endpoint and the
+ * NDJSON import accept the same trips. A trip that would fail its insert is
+ * reported on its own instead of rolling back the trips saved with it.
+ */
+public final class TripValidator {
+
+    // Longest text per field (title, location and province are VARCHAR(255) columns)
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 20_000;
+    private static final int MAX_LOCATION_LENGTH = 255;
+    private static final int MAX_LINK_LENGTH = 2048;
+    private static final int MAX_LIST_ITEMS = 50;
+    private static final int MAX_TAG_LENGTH = 100;
+
+    private TripValidator() {
+    }
+
+    /**
+     * Check one trip of a batch create request
+     * @param tripData The trip as sent in the request body
+     * @return Why the trip is invalid, or null if it can be saved
+     */
+    public static String validate(Map<String, Object> tripData) {
+        if (tripData == null) {
+            return "not an object";
+        }
+        if (!(tripData.get("title") instanceof String title) || title.isBlank()) {
+            return "title is required";
+        }
+        String reason = checkFields(tripData.get("title"), tripData.get("description"), tripData.get("location"),
+                tripData.get("province"), tripData.get("locationLink"), tripData.get("photos"), tripData.get("tags"),
+                tripData.get("latitude"), tripData.get("longitude"));
+        if (reason != null) {
+            return reason;
+        }
+        Object createdAt = tripData.get("createdAt");
+        if (createdAt != null) {
+            try {
+                LocalDateTime.parse(createdAt.toString());
+            } catch (DateTimeParseException e) {
+                return "createdAt must be a date-time like 2024-01-31T08:00:00";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check one line of an NDJSON import
+     * @param record The parsed line
+     * @return Why the trip is invalid, or null if it can be saved
+     */
+    public static String validate(TripRecord record) {
+        if (record.title() == null || record.title().isBlank()) {
+            return "title is required";
+        }
+        return checkFields(record.title(), record.description(), record.location(), record.province(),
+                record.locationLink(), asList(record.photos()), asList(record.tags()),
+                record.latitude(), record.longitude());
+    }
+
+    // Helper method to run the field checks in order; returns the first problem, or null
+    private static String checkFields(Object title, Object description, Object location, Object province,
+                                      Object locationLink, Object photos, Object tags,
+                                      Object latitude, Object longitude) {
+        String reason = checkText("title", title, MAX_TITLE_LENGTH);
+        if (reason == null) reason = checkText("description", description, MAX_DESCRIPTION_LENGTH);
+        if (reason == null) reason = checkText("location", location, MAX_LOCATION_LENGTH);
+        if (reason == null) reason = checkText("province", province, MAX_LOCATION_LENGTH);
+        if (reason == null) reason = checkText("locationLink", locationLink, MAX_LINK_LENGTH);
+        if (reason == null) reason = checkTextList("photos", photos, MAX_LINK_LENGTH);
+        if (reason == null) reason = checkTextList("tags", tags, MAX_TAG_LENGTH);
+        if (reason == null) reason = checkCoordinate("latitude", latitude, 90);
+        if (reason == null) reason = checkCoordinate("longitude", longitude, 180);
+        return reason;
+    }
+
+    // Helper method to check an optional text field
+    private static String checkText(String field, Object value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof String text)) {
+            return field + " must be a string";
+        }
+        return text.length() > maxLength ? field + " is longer than " + maxLength + " characters" : null;
+    }
+
+    // Helper method to check an optional list of strings (photos, tags)
+    private static String checkTextList(String field, Object value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof List<?> items)) {
+            return field + " must be a list";
+        }
+        if (items.size() > MAX_LIST_ITEMS) {
+            return field + " has more than " + MAX_LIST_ITEMS + " entries";
+        }
+        for (Object item : items) {
+            if (!(item instanceof String text)) {
+                return field + " must only contain strings";
+            }
+            if (text.length() > maxLength) {
+                return field + " has an entry longer than " + maxLength + " characters";
+            }
+        }
+        return null;
+    }
+
+    // Helper method to check an optional coordinate (number or numeric string)
+    private static String checkCoordinate(String field, Object value, double limit) {
+        if (value == null) {
+            return null;
+        }
+        double number;
+        try {
+            number = Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return field + " must be a number";
+        }
+        if (!(number >= -limit && number <= limit)) {
+            return field + " must be between " + (int) -limit + " and " + (int) limit;
+        }
+        return null;
+    }
+
+    private static List<String> asList(String[] values) {
+        return values != null ? Arrays.asList(values) : null;
+    }
+}
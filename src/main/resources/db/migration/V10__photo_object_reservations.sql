@@ -0,0 +1,3 @@
+-- Uploads that reuse a stored file hold it until the photo can be attached to a trip,
+-- so PhotoCleanupService does not delete it in between
+ALTER TABLE photo_objects ADD COLUMN IF NOT EXISTS reserved_until TIMESTAMP;
@@ -0,0 +1,15 @@
+-- Full-text and trigram search support for trips (trip.search.backend=postgres)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Written by the app from Thai-segmented text, see PostgresTripSearchBackend
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE INDEX IF NOT EXISTS idx_trips_search_vector ON trips USING GIN (search_vector);
+
+-- Trigram indexes serve the ILIKE '%q%' substring predicates
+CREATE INDEX IF NOT EXISTS idx_trips_title_trgm ON trips USING GIN (title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_trips_description_trgm ON trips USING GIN (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_trips_location_trgm ON trips USING GIN (location gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_trips_province_trgm ON trips USING GIN (province gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_trips_tags_trgm ON trips USING GIN (tags gin_trgm_ops);
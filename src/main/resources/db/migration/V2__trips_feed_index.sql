@@ -0,0 +1,2 @@
+-- Supports the keyset feed: ORDER BY created_at DESC, id DESC with a (created_at, id) seek
+CREATE INDEX IF NOT EXISTS idx_trips_created_at_id ON trips (created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Supports the "my trips" list: WHERE author_id = ? ORDER BY created_at DESC
+CREATE INDEX IF NOT EXISTS idx_trips_author_created_at ON trips (author_id, created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Resized photo URLs + blur placeholders, keyed by original photo URL (JSON, see PhotoVariants)
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS photo_variants TEXT;
@@ -0,0 +1,9 @@
+-- Content-addressed photo index: one row per distinct uploaded file (SHA-256 of its bytes)
+CREATE TABLE IF NOT EXISTS photo_objects (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    url TEXT NOT NULL UNIQUE,
+    size_bytes BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    variants TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
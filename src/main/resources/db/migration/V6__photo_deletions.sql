@@ -0,0 +1,12 @@
+-- Photos removed from trips, waiting for PhotoCleanupService to delete them from storage
+CREATE TABLE IF NOT EXISTS photo_deletions (
+    id BIGSERIAL PRIMARY KEY,
+    url TEXT NOT NULL,
+    variant_urls TEXT,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_photo_deletions_next_attempt ON photo_deletions (next_attempt_at);
@@ -0,0 +1,33 @@
+-- photos and tags become native text[] columns. Legacy rows hold either a
+-- brace string '{a,b}' (written by Trip.setPhotos(String[])) or a plain comma
+-- list 'a,b' (written by the multipart endpoints); both convert the same way.
+
+-- The trigram index on the TEXT column cannot survive the type change
+DROP INDEX IF EXISTS idx_trips_tags_trgm;
+
+-- Same rules as Trip.parseArrayString: optional braces, comma separated, items trimmed, empty items dropped
+CREATE FUNCTION trips_legacy_array(value TEXT) RETURNS TEXT[] LANGUAGE sql IMMUTABLE AS $$
+    SELECT COALESCE(array_agg(btrim(u.item) ORDER BY u.n) FILTER (WHERE btrim(u.item) <> ''), '{}')
+    FROM unnest(string_to_array(regexp_replace(btrim(COALESCE(value, '')), '^\{(.*)\}$', '\1'), ','))
+         WITH ORDINALITY AS u(item, n)
+$$;
+
+ALTER TABLE trips ALTER COLUMN photos TYPE TEXT[] USING trips_legacy_array(photos);
+ALTER TABLE trips ALTER COLUMN photos SET DEFAULT '{}';
+ALTER TABLE trips ALTER COLUMN photos SET NOT NULL;
+
+ALTER TABLE trips ALTER COLUMN tags TYPE TEXT[] USING trips_legacy_array(tags);
+ALTER TABLE trips ALTER COLUMN tags SET DEFAULT '{}';
+ALTER TABLE trips ALTER COLUMN tags SET NOT NULL;
+
+DROP FUNCTION trips_legacy_array(TEXT);
+
+-- array_to_string is only STABLE, so substring search on tags goes through this immutable wrapper
+CREATE FUNCTION trips_tags_text(tags TEXT[]) RETURNS TEXT LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT array_to_string(tags, ',')
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_trips_tags_trgm ON trips USING GIN (trips_tags_text(tags) gin_trgm_ops);
+
+-- Serves the photos @> ARRAY[url] lookup in PhotoCleanupService
+CREATE INDEX IF NOT EXISTS idx_trips_photos ON trips USING GIN (photos);
@@ -0,0 +1,14 @@
+-- Trip and user ids move from per-row IDENTITY to a pooled sequence (allocationSize 50 on
+-- the entities): Hibernate reserves 50 ids per nextval, which lets it batch the inserts.
+-- trips_id_seq and users_id_seq are the sequences behind the existing id columns
+-- (SERIAL or identity alike); the column defaults keep working for plain SQL inserts.
+
+ALTER SEQUENCE trips_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+
+-- The pooled optimizer hands out the 50 ids up to and including the value it reads, so
+-- the next value must be at least 50 above every id in use or handed out before
+SELECT setval('trips_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM trips),
+                                       (SELECT last_value FROM trips_id_seq)) + 50, false);
+SELECT setval('users_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users),
+                                       (SELECT last_value FROM users_id_seq)) + 50, false);
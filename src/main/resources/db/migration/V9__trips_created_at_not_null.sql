@@ -0,0 +1,8 @@
+-- The keyset feed seeks on (created_at, id): a NULL created_at cannot be put in a cursor,
+-- and "created_at < ?" never matches it, so such trips could break or drop out of the feed.
+-- Existing gaps get the last edit time (or now), and new rows can no longer leave it empty.
+
+UPDATE trips SET created_at = COALESCE(updated_at, now()) WHERE created_at IS NULL;
+
+ALTER TABLE trips ALTER COLUMN created_at SET DEFAULT now();
+ALTER TABLE trips ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,246 @@
+package com.techup.travel_app.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.techup.travel_app.config.StorageClientConfig;
+import com.techup.travel_app.controller.LocalFileController;
+import com.techup.travel_app.service.LocalDiskPhotoStorage;
+import com.techup.travel_app.service.StorageCallPolicy;
+import com.techup.travel_app.service.SupabaseStorageService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Upload and serve of one photo on the two storage backends. "local" is
+ * LocalDiskPhotoStorage and LocalFileController (the transferTo path, as
+ * without sendfile); "supabase" is SupabaseStorageService with the app's
+ * WebClient and call policy, talking to a stand-in for the Storage API on
+ * loopback. The stand-in answers at once, so the supabase numbers are the
+ * app-side floor: production adds the round trip to the storage region and
+ * Supabase's own time on every call.
+ *
+ * Run with the GC profiler to see allocation per operation (gc.alloc.rate.norm):
+ * <pre>
+ * ./mvnw -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.techup.travel_app.benchmark.StorageBackendBenchmark
+ * </pre>
+ * Results from a reference run are in loadtest/README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBackendBenchmark {
+
+    private static final String BUCKET = "trips-photo";
+    private static final String NAME = "0123456789abcdef.jpg";
+
+    // A typical resized phone photo and a large original
+    @Param({"102400", "2097152"})
+    private int size;
+
+    private byte[] photo;
+    private Path root;
+
+    private LocalDiskPhotoStorage localStorage;
+    private LocalFileController localFiles;
+
+    private HttpServer storageApi;
+    private ConnectionProvider connections;
+    private WebClient webClient;
+    private SupabaseStorageService supabaseStorage;
+    private String supabaseUrl;
+
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        photo = new byte[size];
+        new Random(42).nextBytes(photo);
+
+        root = Files.createTempDirectory("storage-bench");
+        localStorage = new LocalDiskPhotoStorage();
+        ReflectionTestUtils.setField(localStorage, "rootDir", root.toString());
+        ReflectionTestUtils.setField(localStorage, "publicUrl", "http://localhost:8080");
+        localStorage.init();
+        localStorage.uploadBytes(photo, "image/jpeg", NAME);
+        localFiles = new LocalFileController();
+        ReflectionTestUtils.setField(localFiles, "storage", localStorage);
+
+        storageApi = startStorageApi();
+        String baseUrl = "http://127.0.0.1:" + storageApi.getAddress().getPort();
+
+        // Same client and policy as the app, with the default settings
+        StorageClientConfig clientConfig = new StorageClientConfig();
+        connections = clientConfig.storageConnectionProvider(50, Duration.ofSeconds(5));
+        webClient = clientConfig.storageWebClient(connections, Duration.ofSeconds(3), Duration.ofSeconds(30));
+        StorageCallPolicy callPolicy = new StorageCallPolicy();
+        ReflectionTestUtils.setField(callPolicy, "callTimeout", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(callPolicy, "maxRetries", 2);
+        ReflectionTestUtils.setField(callPolicy, "retryBackoff", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(callPolicy, "maxConcurrentCalls", 32);
+        ReflectionTestUtils.setField(callPolicy, "bulkheadMaxWait", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(callPolicy, "circuitOpenDuration", Duration.ofSeconds(30));
+        callPolicy.init();
+
+        supabaseStorage = new SupabaseStorageService();
+        ReflectionTestUtils.setField(supabaseStorage, "supabaseUrl", baseUrl);
+        ReflectionTestUtils.setField(supabaseStorage, "bucket", BUCKET);
+        ReflectionTestUtils.setField(supabaseStorage, "apiKey", "bench-key");
+        ReflectionTestUtils.setField(supabaseStorage, "storageWebClient", webClient);
+        ReflectionTestUtils.setField(supabaseStorage, "storageCallPolicy", callPolicy);
+        supabaseUrl = supabaseStorage.uploadBytes(photo, "image/jpeg", NAME);
+
+        // SupabaseStorageService logs two lines per upload
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(stdout);
+        connections.dispose();
+        storageApi.stop(0);
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String uploadLocal() {
+        return localStorage.uploadBytes(photo, "image/jpeg", NAME);
+    }
+
+    @Benchmark
+    public String uploadSupabase() {
+        return supabaseStorage.uploadBytes(photo, "image/jpeg", NAME);
+    }
+
+    // The whole photo through LocalFileController into a response that drops the bytes
+    @Benchmark
+    public int serveLocal() throws IOException {
+        DiscardingResponse response = new DiscardingResponse();
+        localFiles.getFile(NAME, new MockHttpServletRequest("GET", "/api/files/" + NAME), response);
+        return response.getStatus();
+    }
+
+    // The whole photo fetched from the storage's public URL, as the app does for a remote object
+    @Benchmark
+    public Object serveSupabase() {
+        return webClient.get().uri(supabaseUrl).retrieve().toBodilessEntity().block();
+    }
+
+    // Stand-in for the object endpoints of the Storage API that the app uses
+    private HttpServer startStorageApi() throws IOException {
+        Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        String uploadPath = "/storage/v1/object/" + BUCKET + "/";
+        String publicPath = "/storage/v1/object/public/" + BUCKET + "/";
+
+        // Without TCP_NODELAY small responses wait for delayed ACKs and every call takes ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/storage/v1/object/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if ("PUT".equals(exchange.getRequestMethod()) && path.startsWith(uploadPath)) {
+                try (InputStream in = exchange.getRequestBody()) {
+                    objects.put(path.substring(uploadPath.length()), in.readAllBytes());
+                }
+                respond(exchange, 200, "application/json", "{\"Key\":\"ok\"}".getBytes());
+            } else if ("GET".equals(exchange.getRequestMethod()) && path.startsWith(publicPath)) {
+                byte[] object = objects.get(path.substring(publicPath.length()));
+                if (object != null) {
+                    respond(exchange, 200, "image/jpeg", object);
+                } else {
+                    respond(exchange, 404, "application/json", new byte[0]);
+                }
+            } else {
+                respond(exchange, 400, "application/json", new byte[0]);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Drops the body instead of buffering it, so only the serving side is measured
+    private static class DiscardingResponse extends MockHttpServletResponse {
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StorageBackendBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
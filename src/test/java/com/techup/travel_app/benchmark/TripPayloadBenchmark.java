@@ -0,0 +1,237 @@
+package com.techup.travel_app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.techup.travel_app.dto.PhotoVariants;
+import com.techup.travel_app.dto.TripDetail;
+import com.techup.travel_app.dto.TripSummary;
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trip payloads before and after the switch from per-request HashMaps to
+ * records: one feed page (12 summaries) and one detail page, built and
+ * serialized to bytes. The "maps" benchmarks are copies of the old
+ * convertTripToMap / convertTripToDetailMap with a plain Boot ObjectMapper;
+ * the "records" ones use the DTOs with Blackbird, as the app does now.
+ * The old maps had no photo variants, so withVariants=false compares the same
+ * fields and withVariants=true shows the cost of the variants on top.
+ *
+ * Run with the GC profiler to see allocation per request (gc.alloc.rate.norm):
+ * <pre>
+ * ./mvnw -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.techup.travel_app.benchmark.TripPayloadBenchmark
+ * </pre>
+ * Results from a reference run are in loadtest/README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TripPayloadBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+    private static final int PHOTOS_PER_TRIP = 5;
+
+    @Param({"false", "true"})
+    private boolean withVariants;
+
+    private ObjectMapper mapMapper;
+    private ObjectMapper recordMapper;
+
+    private List<Trip> trips;
+
+    // Raw column values as the feed query returns them, including the photo_variants JSON
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        mapMapper = mapper();
+        recordMapper = mapper();
+        recordMapper.registerModule(new BlackbirdModule());
+
+        User author = new User();
+        author.setId(3L);
+        author.setDisplayName("Alice");
+        author.setEmail("alice@example.com");
+
+        trips = new ArrayList<>(PAGE_SIZE);
+        rows = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            String[] photos = new String[PHOTOS_PER_TRIP];
+            Map<String, PhotoVariants> variants = new LinkedHashMap<>();
+            for (int p = 0; p < PHOTOS_PER_TRIP; p++) {
+                photos[p] = "https://cdn.example.com/trips/" + i + "_" + p + ".jpg";
+                variants.put(photos[p], new PhotoVariants(photos[p] + "_w320", photos[p] + "_w800",
+                        photos[p] + "_w1600", "data:image/jpeg;base64," + "A".repeat(600)));
+            }
+
+            Trip trip = new Trip();
+            trip.setId((long) i + 1);
+            trip.setTitle("คู่มือเที่ยวเกาะช้าง กิน เที่ยว พักที่ไหนดี " + i);
+            trip.setDescription("วันว่างนี้ไปเที่ยวเกาะช้างกันไหม ทะเลสวย น้ำใส ".repeat(20));
+            trip.setPhotos(photos);
+            trip.setTags(new String[]{"ทะเล", "เกาะ", "ตราด"});
+            trip.setLatitude(12.05);
+            trip.setLongitude(102.35);
+            trip.setLocation("เกาะช้าง");
+            trip.setProvince("ตราด");
+            trip.setLocationLink("https://maps.example.com/?q=12.05,102.35");
+            trip.setCreatedAt(LocalDateTime.of(2024, 1, 31, 8, 0).minusDays(i));
+            trip.setUpdatedAt(LocalDateTime.of(2024, 2, 1, 9, 30));
+            trip.setPhotoVariants(withVariants ? PhotoVariants.toJson(variants) : null);
+            trip.setAuthor(author);
+            trips.add(trip);
+
+            rows.add(new Object[]{trip.getId(), trip.getTitle(),
+                    trip.getDescription().substring(0, TripSummary.DESCRIPTION_PREFIX_LENGTH),
+                    trip.getPhotosArray(), trip.getTagsArray(), trip.getLocation(), trip.getProvince(),
+                    trip.getLocationLink(), trip.getCreatedAt(), trip.getUpdatedAt(),
+                    author.getId(), author.getDisplayName(), trip.getPhotoVariants()});
+        }
+    }
+
+    @Benchmark
+    public byte[] feedPageMaps() throws Exception {
+        List<Map<String, Object>> page = new ArrayList<>(PAGE_SIZE);
+        for (Trip trip : trips) {
+            page.add(convertTripToMap(trip));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("trips", page);
+        response.put("total", page.size());
+        return mapMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] feedPageRecords() throws Exception {
+        List<TripSummary> page = new ArrayList<>(PAGE_SIZE);
+        for (Object[] row : rows) {
+            page.add(new TripSummary((Long) row[0], (String) row[1], (String) row[2], (String[]) row[3],
+                    (String[]) row[4], (String) row[5], (String) row[6], (String) row[7],
+                    (LocalDateTime) row[8], (LocalDateTime) row[9], (Long) row[10], (String) row[11],
+                    (String) row[12]));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("trips", page);
+        response.put("total", page.size());
+        return recordMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] detailMap() throws Exception {
+        return mapMapper.writeValueAsBytes(convertTripToDetailMap(trips.get(0)));
+    }
+
+    @Benchmark
+    public byte[] detailRecord() throws Exception {
+        return recordMapper.writeValueAsBytes(TripDetail.from(trips.get(0)));
+    }
+
+    // Cover variants of one list row: the whole map versus only the cover's entry
+    @Benchmark
+    public PhotoVariants coverVariantsWholeMap() {
+        Object[] row = rows.get(0);
+        return PhotoVariants.parseMap((String) row[12]).get(((String[]) row[3])[0]);
+    }
+
+    @Benchmark
+    public PhotoVariants coverVariantsEntry() {
+        Object[] row = rows.get(0);
+        return PhotoVariants.parseEntry((String) row[12], ((String[]) row[3])[0]);
+    }
+
+    // Boot's defaults without the app's modules
+    private static ObjectMapper mapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    // Copy of TravelController.convertTripToMap before the DTO records
+    private static Map<String, Object> convertTripToMap(Trip trip) {
+        Map<String, Object> tripMap = new HashMap<>();
+        tripMap.put("id", trip.getId());
+        tripMap.put("title", trip.getTitle());
+        tripMap.put("description", trip.getShortDescription());
+        tripMap.put("coverImage", trip.getCoverImage());
+        tripMap.put("province", trip.getProvince());
+        tripMap.put("tags", trip.getTagsArray());
+        tripMap.put("photos", trip.getPhotosArray());
+        tripMap.put("location", trip.getLocation());
+        tripMap.put("locationLink", trip.getLocationLink());
+        tripMap.put("createdAt", trip.getCreatedAt());
+        tripMap.put("updatedAt", trip.getUpdatedAt());
+        if (trip.getAuthor() != null) {
+            tripMap.put("authorId", trip.getAuthor().getId());
+            tripMap.put("authorName", trip.getAuthor().getDisplayName());
+        } else {
+            tripMap.put("authorId", null);
+            tripMap.put("authorName", "Travel Blogger");
+        }
+        return tripMap;
+    }
+
+    // Copy of TravelController.convertTripToDetailMap before the DTO records
+    private static Map<String, Object> convertTripToDetailMap(Trip trip) {
+        Map<String, Object> tripMap = new HashMap<>();
+        tripMap.put("id", trip.getId());
+        tripMap.put("title", trip.getTitle());
+        tripMap.put("description", trip.getDescription());
+        tripMap.put("photos", trip.getPhotosArray());
+        tripMap.put("tags", trip.getTagsArray());
+        tripMap.put("latitude", trip.getLatitude());
+        tripMap.put("longitude", trip.getLongitude());
+        tripMap.put("location", trip.getLocation());
+        tripMap.put("province", trip.getProvince());
+        tripMap.put("locationLink", trip.getLocationLink());
+        tripMap.put("createdAt", trip.getCreatedAt());
+        tripMap.put("updatedAt", trip.getUpdatedAt());
+        Map<String, Object> author = new HashMap<>();
+        if (trip.getAuthor() != null) {
+            author.put("id", trip.getAuthor().getId());
+            author.put("displayName", trip.getAuthor().getDisplayName());
+            author.put("email", trip.getAuthor().getEmail());
+        } else {
+            author.put("id", null);
+            author.put("displayName", "Travel Blogger");
+            author.put("email", "blogger@example.com");
+        }
+        tripMap.put("author", author);
+        return tripMap;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TripPayloadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
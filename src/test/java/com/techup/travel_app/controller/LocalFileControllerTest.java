@@ -0,0 +1,302 @@
+package com.techup.travel_app.controller;
+
+import com.techup.travel_app.service.LocalDiskPhotoStorage;
+import com.techup.travel_app.service.PhotoStorage;
+import com.techup.travel_app.service.UploadSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Range handling, sendfile hand-off and the signed-PUT size cap of
+ * LocalFileController, against a LocalDiskPhotoStorage in a temp directory.
+ */
+class LocalFileControllerTest {
+
+    private static final String NAME = "abc123.jpg";
+
+    // 0..99, so every byte's value is its own offset
+    private static final byte[] CONTENT = new byte[100];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    @TempDir
+    Path root;
+
+    private LocalDiskPhotoStorage storage;
+    private LocalFileController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UploadSigner signer = new UploadSigner();
+        ReflectionTestUtils.setField(signer, "signingKey", "test-signing-key-0123456789abcdef0123");
+        ReflectionTestUtils.setField(signer, "jwtSecret", "test-jwt-secret");
+        signer.init();
+
+        storage = new LocalDiskPhotoStorage();
+        ReflectionTestUtils.setField(storage, "rootDir", root.toString());
+        ReflectionTestUtils.setField(storage, "publicUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(storage, "uploadSigner", signer);
+        storage.init();
+        storage.uploadBytes(CONTENT, "image/jpeg", NAME);
+
+        controller = new LocalFileController();
+        ReflectionTestUtils.setField(controller, "storage", storage);
+    }
+
+    @Test
+    void servesTheWholeFileWithoutRange() throws Exception {
+        MockHttpServletResponse response = get(null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/jpeg");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void servesASingleRange() throws Exception {
+        MockHttpServletResponse response = get("bytes=10-19");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 10-19/100");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).containsExactly(slice(10, 20));
+    }
+
+    @Test
+    void servesASuffixRange() throws Exception {
+        MockHttpServletResponse response = get("bytes=-5");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 95-99/100");
+        assertThat(response.getContentAsByteArray()).containsExactly(slice(95, 100));
+    }
+
+    @Test
+    void clampsARangePastTheEnd() throws Exception {
+        // A suffix longer than the file and an open end both mean "up to the last byte"
+        assertThat(get("bytes=-500").getHeader("Content-Range")).isEqualTo("bytes 0-99/100");
+
+        MockHttpServletResponse response = get("bytes=90-500");
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 90-99/100");
+        assertThat(response.getContentAsByteArray()).containsExactly(slice(90, 100));
+    }
+
+    @Test
+    void rejectsAnUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = get("bytes=100-");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */100");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void rejectsAMalformedRange() throws Exception {
+        MockHttpServletResponse response = get("bytes=20-10");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */100");
+    }
+
+    @Test
+    void servesTheWholeFileForMultipleRanges() throws Exception {
+        MockHttpServletResponse response = get("bytes=0-9,20-29");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Range")).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void handsTheRangeToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        MockHttpServletRequest request = request("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getFile(NAME, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(root.resolve(NAME).toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        // Tomcat's end is exclusive
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+        // Tomcat writes the body itself
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void fallsBackToTransferToWithoutSendfile() throws Exception {
+        MockHttpServletRequest request = request("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.FALSE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getFile(NAME, request, response);
+
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+        assertThat(response.getContentAsByteArray()).containsExactly(slice(10, 20));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = request(null);
+        request.setMethod("HEAD");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getFile(NAME, request, response);
+
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answersNotModifiedForTheSameName() throws Exception {
+        MockHttpServletRequest request = request(null);
+        request.addHeader("If-None-Match", "\"" + NAME + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getFile(NAME, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void missingOrInvalidNamesAreNotFound() throws Exception {
+        for (String name : new String[]{"missing.jpg", ".hidden", "..", "a/b.jpg"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            controller.getFile(name, request(null), response);
+            assertThat(response.getStatus()).as(name).isEqualTo(404);
+        }
+    }
+
+    @Test
+    void storesASignedUpload() throws Exception {
+        ResponseEntity<Map<String, Object>> response = put("new.jpg", 100, CONTENT, true);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody()).containsEntry("key", "new.jpg")
+                .containsEntry("url", "http://localhost:8080/api/files/new.jpg");
+        assertThat(Files.readAllBytes(root.resolve("new.jpg"))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void rejectsATamperedSizeLimit() throws Exception {
+        MultiValueMap<String, String> query = signedQuery("new.jpg", 10);
+        MockHttpServletRequest request = uploadRequest(CONTENT, true);
+
+        // Raising maxBytes invalidates the signature
+        ResponseEntity<Map<String, Object>> response = controller.uploadFile("new.jpg",
+                Long.parseLong(query.getFirst("expires")), 1000, query.getFirst("signature"), request);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(403);
+        assertThat(root.resolve("new.jpg")).doesNotExist();
+    }
+
+    @Test
+    void rejectsADeclaredLengthOverTheCap() throws Exception {
+        ResponseEntity<Map<String, Object>> response = put("new.jpg", 99, CONTENT, true);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(413);
+        assertThat(response.getBody()).containsEntry("error", "File is too large");
+        assertThat(root.resolve("new.jpg")).doesNotExist();
+    }
+
+    @Test
+    void stopsAChunkedBodyAtTheCap() throws Exception {
+        ResponseEntity<Map<String, Object>> response = put("new.jpg", 99, CONTENT, false);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(413);
+        assertThat(root.resolve("new.jpg")).doesNotExist();
+        // The partial temp file is removed too
+        try (var files = Files.list(root)) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactly(NAME);
+        }
+    }
+
+    @Test
+    void acceptsAChunkedBodyExactlyAtTheCap() throws Exception {
+        ResponseEntity<Map<String, Object>> response = put("new.jpg", 100, CONTENT, false);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(Files.readAllBytes(root.resolve("new.jpg"))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void signingWithoutAKeyIsUnavailable() {
+        UploadSigner unconfigured = new UploadSigner();
+        ReflectionTestUtils.setField(unconfigured, "signingKey", "");
+        unconfigured.init();
+        ReflectionTestUtils.setField(storage, "uploadSigner", unconfigured);
+
+        assertThatThrownBy(() -> storage.createSignedUpload("new.jpg", "image/jpeg", 100, Duration.ofMinutes(5)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(503));
+    }
+
+    private MockHttpServletResponse get(String range) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getFile(NAME, request(range), response);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/" + NAME);
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        return request;
+    }
+
+    // PUT on a URL signed by the storage, as the browser sends it after /uploads/sign
+    private ResponseEntity<Map<String, Object>> put(String name, long maxBytes, byte[] body, boolean withLength) {
+        MultiValueMap<String, String> query = signedQuery(name, maxBytes);
+        return controller.uploadFile(name, Long.parseLong(query.getFirst("expires")),
+                Long.parseLong(query.getFirst("maxBytes")), query.getFirst("signature"), uploadRequest(body, withLength));
+    }
+
+    private MultiValueMap<String, String> signedQuery(String name, long maxBytes) {
+        PhotoStorage.SignedUpload signed = storage.createSignedUpload(name, "image/jpeg", maxBytes, Duration.ofMinutes(5));
+        return UriComponentsBuilder.fromUriString(signed.url()).build().getQueryParams();
+    }
+
+    private MockHttpServletRequest uploadRequest(byte[] body, boolean withLength) {
+        // Chunked transfer encoding: the body has no Content-Length
+        MockHttpServletRequest request = withLength ? new MockHttpServletRequest() : new MockHttpServletRequest() {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setMethod("PUT");
+        request.setContent(body);
+        return request;
+    }
+
+    private byte[] slice(int from, int to) {
+        byte[] slice = new byte[to - from];
+        System.arraycopy(CONTENT, from, slice, 0, slice.length);
+        return slice;
+    }
+}
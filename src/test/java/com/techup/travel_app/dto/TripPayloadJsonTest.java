@@ -0,0 +1,227 @@
+package com.techup.travel_app.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.techup.travel_app.entity.Trip;
+import com.techup.travel_app.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JSON shape of the trip and user payloads: field names, order and the values
+ * the frontend reads. Uses the same Jackson setup as the app (Boot defaults
+ * plus Blackbird), so a renamed component or changed default shows up here.
+ */
+class TripPayloadJsonTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 31, 8, 0);
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 2, 1, 9, 30, 15);
+
+    private static final String VARIANTS_JSON = "{"
+            + "\"https://x/a.jpg\":{\"small\":\"https://x/a_w320.jpg\",\"medium\":\"https://x/a_w800.jpg\","
+            + "\"large\":\"https://x/a_w1600.jpg\",\"placeholder\":\"data:image/jpeg;base64,AA\"},"
+            + "\"https://x/old.jpg\":{\"small\":\"https://x/old_w320.jpg\",\"medium\":null,\"large\":null,\"placeholder\":null}}";
+
+    // Spring Boot's JacksonAutoConfiguration also turns off timestamp dates
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new BlackbirdModule())
+            .build();
+
+    @Test
+    void tripSummaryFieldsAndOrder() throws Exception {
+        JsonNode json = toJson(summary(7L, "Alice", VARIANTS_JSON));
+
+        assertThat(fieldNames(json)).containsExactly("id", "title", "description", "coverImage", "coverVariants",
+                "province", "tags", "photos", "location", "locationLink", "createdAt", "updatedAt",
+                "authorId", "authorName");
+        assertThat(json.get("coverImage").asText()).isEqualTo("https://x/a.jpg");
+        assertThat(json.get("coverVariants").get("small").asText()).isEqualTo("https://x/a_w320.jpg");
+        assertThat(json.get("createdAt").asText()).isEqualTo("2024-01-31T08:00:00");
+        assertThat(json.get("updatedAt").asText()).isEqualTo("2024-02-01T09:30:15");
+        assertThat(json.get("authorName").asText()).isEqualTo("Alice");
+    }
+
+    @Test
+    void tripSummaryShortensDescriptionAndResolvesProvinceFromTags() throws Exception {
+        String longDescription = "word ".repeat(30);
+        TripSummary summary = new TripSummary(1L, "t", longDescription.substring(0, TripSummary.DESCRIPTION_PREFIX_LENGTH),
+                new String[0], new String[]{"ทะเล", "จังหวัดกระบี่"}, null, null, null,
+                CREATED, UPDATED, null, null, null);
+
+        JsonNode json = toJson(summary);
+        assertThat(json.get("description").asText()).endsWith("...").hasSizeLessThanOrEqualTo(123);
+        assertThat(json.get("province").asText()).isEqualTo("กระบี่");
+        assertThat(json.get("coverImage").isNull()).isTrue();
+        assertThat(json.get("coverVariants").isNull()).isTrue();
+        // Legacy trips without an author
+        assertThat(json.get("authorId").isNull()).isTrue();
+        assertThat(json.get("authorName").asText()).isEqualTo("Travel Blogger");
+    }
+
+    @Test
+    void tripSummaryWithoutVariantsForTheCover() throws Exception {
+        JsonNode json = toJson(summary(7L, "Alice", "{\"https://x/old.jpg\":{\"small\":\"s\"}}"));
+        assertThat(json.get("coverVariants").isNull()).isTrue();
+
+        json = toJson(summary(7L, "Alice", "not json"));
+        assertThat(json.get("coverVariants").isNull()).isTrue();
+    }
+
+    @Test
+    void tripDetailFieldsAndOrder() throws Exception {
+        Trip trip = trip();
+        User author = new User();
+        author.setId(3L);
+        author.setDisplayName("Alice");
+        author.setEmail("alice@example.com");
+        trip.setAuthor(author);
+
+        JsonNode json = toJson(TripDetail.from(trip));
+
+        assertThat(fieldNames(json)).containsExactly("id", "title", "description", "photos", "tags", "latitude",
+                "longitude", "location", "province", "locationLink", "createdAt", "updatedAt", "author", "photoVariants");
+        assertThat(fieldNames(json.get("author"))).containsExactly("id", "displayName", "email");
+        assertThat(json.get("author").get("id").asLong()).isEqualTo(3L);
+        assertThat(json.get("description").asText()).isEqualTo(trip.getDescription());
+        assertThat(json.get("latitude").asDouble()).isEqualTo(7.9);
+        assertThat(json.get("photos").size()).isEqualTo(2);
+        assertThat(json.get("createdAt").asText()).isEqualTo("2024-01-31T08:00:00");
+    }
+
+    @Test
+    void tripDetailKeepsVariantsOfCurrentPhotosOnly() throws Exception {
+        Trip trip = trip();
+        trip.setPhotoVariants(VARIANTS_JSON);
+
+        JsonNode variants = toJson(TripDetail.from(trip)).get("photoVariants");
+
+        assertThat(fieldNames(variants)).containsExactly("https://x/a.jpg");
+        assertThat(fieldNames(variants.get("https://x/a.jpg"))).containsExactly("small", "medium", "large", "placeholder");
+    }
+
+    @Test
+    void tripDetailForLegacyTripHasPlaceholderAuthor() throws Exception {
+        JsonNode author = toJson(TripDetail.from(trip())).get("author");
+
+        assertThat(author.get("id").isNull()).isTrue();
+        assertThat(author.get("displayName").asText()).isEqualTo("Travel Blogger");
+    }
+
+    @Test
+    void nearbyTripIsASummaryWithDistance() throws Exception {
+        JsonNode json = toJson(new NearbyTrip(summary(7L, "Alice", null), 1.25));
+
+        List<String> names = fieldNames(json);
+        assertThat(names).startsWith("id", "title").endsWith("authorName", "distanceKm");
+        assertThat(names).doesNotContain("trip");
+        assertThat(json.get("distanceKm").asDouble()).isEqualTo(1.25);
+    }
+
+    @Test
+    void tripRecordRoundTrips() throws Exception {
+        Trip trip = trip();
+        TripRecord record = TripRecord.from(trip);
+
+        String line = mapper.writeValueAsString(record);
+        JsonNode json = mapper.readTree(line);
+        assertThat(fieldNames(json)).containsExactly("id", "title", "description", "photos", "tags", "latitude",
+                "longitude", "location", "province", "locationLink", "authorId", "createdAt", "updatedAt");
+        assertThat(line).doesNotContain("\n");
+
+        TripRecord read = mapper.readValue(line, TripRecord.class);
+        assertThat(read.title()).isEqualTo(record.title());
+        assertThat(read.photos()).containsExactly(record.photos());
+        assertThat(read.tags()).containsExactly(record.tags());
+        assertThat(read.createdAt()).isEqualTo(CREATED);
+    }
+
+    @Test
+    void tripRecordStoresOnlyTheProvinceColumn() throws Exception {
+        Trip trip = trip();
+        trip.setProvince(null);
+
+        JsonNode json = toJson(TripRecord.from(trip));
+
+        // Reads would show a tag guess; the export must not turn it into data
+        assertThat(json.get("province").isNull()).isTrue();
+    }
+
+    @Test
+    void tripRecordIgnoresUnknownFields() throws Exception {
+        TripRecord read = mapper.readValue("{\"title\":\"t\",\"coverImage\":\"x\",\"extra\":1}", TripRecord.class);
+
+        assertThat(read.title()).isEqualTo("t");
+        assertThat(read.photos()).isNull();
+    }
+
+    @Test
+    void userProfileLeavesOutRoleAndTotalOnUpdate() throws Exception {
+        User user = new User();
+        user.setId(3L);
+        user.setEmail("alice@example.com");
+        user.setDisplayName("Alice");
+        user.setCreatedAt(CREATED);
+
+        assertThat(fieldNames(toJson(UserProfile.withRole(user, 4))))
+                .containsExactly("id", "email", "name", "displayName", "profileImage", "role", "createdAt", "totalTrips");
+        assertThat(fieldNames(toJson(UserProfile.of(user))))
+                .containsExactly("id", "email", "name", "displayName", "profileImage", "createdAt");
+    }
+
+    @Test
+    void parseEntryReadsOnlyTheRequestedPhoto() {
+        assertThat(PhotoVariants.parseEntry(VARIANTS_JSON, "https://x/old.jpg"))
+                .isEqualTo(new PhotoVariants("https://x/old_w320.jpg", null, null, null));
+        assertThat(PhotoVariants.parseEntry(VARIANTS_JSON, "https://x/missing.jpg")).isNull();
+        assertThat(PhotoVariants.parseEntry(null, "https://x/a.jpg")).isNull();
+        assertThat(PhotoVariants.parseEntry("[]", "https://x/a.jpg")).isNull();
+        assertThat(PhotoVariants.parseEntry("{\"https://x/a.jpg\":", "https://x/a.jpg")).isNull();
+        // Same result as looking the photo up in the whole map
+        assertThat(PhotoVariants.parseEntry(VARIANTS_JSON, "https://x/a.jpg"))
+                .isEqualTo(PhotoVariants.parseMap(VARIANTS_JSON).get("https://x/a.jpg"));
+    }
+
+    // Summary as the JPQL constructor expression builds it
+    private TripSummary summary(Long authorId, String authorName, String photoVariants) {
+        return new TripSummary(1L, "Krabi", "Sea and sun", new String[]{"https://x/a.jpg", "https://x/b.jpg"},
+                new String[]{"ทะเล"}, "Ao Nang", "กระบี่", "https://maps.example/1",
+                CREATED, UPDATED, authorId, authorName, photoVariants);
+    }
+
+    private Trip trip() {
+        Trip trip = new Trip();
+        trip.setId(1L);
+        trip.setTitle("Krabi");
+        trip.setDescription("Sea and sun ".repeat(20));
+        trip.setPhotos(new String[]{"https://x/a.jpg", "https://x/b.jpg"});
+        trip.setTags(new String[]{"ทะเล", "กระบี่"});
+        trip.setLatitude(7.9);
+        trip.setLongitude(98.8);
+        trip.setLocation("Ao Nang");
+        trip.setProvince("กระบี่");
+        trip.setCreatedAt(CREATED);
+        trip.setUpdatedAt(UPDATED);
+        return trip;
+    }
+
+    private JsonNode toJson(Object payload) throws Exception {
+        return mapper.readTree(mapper.writeValueAsString(payload));
+    }
+
+    private List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        Iterator<String> iterator = node.fieldNames();
+        iterator.forEachRemaining(names::add);
+        return names;
+    }
+}
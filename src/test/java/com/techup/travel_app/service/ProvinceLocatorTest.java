@@ -0,0 +1,54 @@
+package com.techup.travel_app.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offline province lookup against the bundled reference points: clear matches,
+ * points outside Thailand, points too close to a border, and the fallback to tags.
+ */
+class ProvinceLocatorTest {
+
+    private static final ProvinceLocator locator = new ProvinceLocator();
+
+    @BeforeAll
+    static void load() {
+        locator.load();
+    }
+
+    @Test
+    void placesPointsNearAReferencePoint() {
+        assertThat(locator.locate(18.7883, 98.9853)).isEqualTo("เชียงใหม่");
+        assertThat(locator.locate(7.8804, 98.3923)).isEqualTo("ภูเก็ต");
+        assertThat(locator.locate(13.7563, 100.5018)).isEqualTo("กรุงเทพมหานคร");
+        // Doi Inthanon, almost 60 km from the city but still Chiang Mai
+        assertThat(locator.locate(18.5880, 98.4867)).isEqualTo("เชียงใหม่");
+    }
+
+    @Test
+    void pointsOutsideThailandAreUnknown() {
+        // Tokyo, and southern Vietnam (inside the quick-reject box)
+        assertThat(locator.locate(35.6762, 139.6503)).isNull();
+        assertThat(locator.locate(9.0, 105.0)).isNull();
+        assertThat(locator.locate(null, 100.5)).isNull();
+        assertThat(locator.locate(13.75, null)).isNull();
+    }
+
+    @Test
+    void pointsBetweenTwoProvincesAreNotGuessed() {
+        // Halfway between the Bangkok and Nonthaburi seats
+        assertThat(locator.locate(13.8092, 100.5081)).isNull();
+    }
+
+    @Test
+    void coordinatesWinOverTagsAndTagsFillIn() {
+        String[] tags = {"ทะเล", "กระบี่"};
+
+        assertThat(locator.resolve(18.7883, 98.9853, tags)).isEqualTo("เชียงใหม่");
+        assertThat(locator.resolve(null, null, tags)).isEqualTo("กระบี่");
+        assertThat(locator.resolve(13.8092, 100.5081, tags)).isEqualTo("กระบี่");
+        assertThat(locator.resolve(null, null, new String[]{"ทะเล"})).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.dto.TripSummary;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The feed cursor: what encodeCursor writes decodes to the same position, and
+ * anything else a client sends is rejected as IllegalArgumentException (a 400)
+ * instead of failing deeper in the query.
+ */
+class TripFeedServiceCursorTest {
+
+    @Test
+    void roundTripsThePosition() {
+        for (LocalDateTime createdAt : new LocalDateTime[]{
+                LocalDateTime.of(2024, 1, 31, 8, 0),
+                LocalDateTime.of(2024, 1, 31, 8, 0, 15),
+                LocalDateTime.of(2024, 1, 31, 8, 0, 15, 123_456_000)}) {
+            String cursor = TripFeedService.encodeCursor(summary(42L, createdAt));
+
+            assertThat(cursor).doesNotContain("=", "+", "/");
+            assertThat(TripFeedService.decodeCursor(cursor))
+                    .isEqualTo(new TripFeedService.Position(createdAt, 42L));
+        }
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : new String[]{
+                "!!",
+                "",
+                encode("2024-01-31T08:00"),
+                encode("2024-01-31T08:00|"),
+                encode("2024-01-31T08:00|abc"),
+                encode("yesterday|5"),
+                encode("|5"),
+                encode("2024-01-31T08:00|99999999999999999999")}) {
+            assertThatThrownBy(() -> TripFeedService.decodeCursor(cursor))
+                    .as("cursor %s", cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TripSummary summary(Long id, LocalDateTime createdAt) {
+        return new TripSummary(id, "t", "d", new String[0], new String[0], null, null, null,
+                createdAt, createdAt, null, null, null);
+    }
+}
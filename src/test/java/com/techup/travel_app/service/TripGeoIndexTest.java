@@ -0,0 +1,116 @@
+package com.techup.travel_app.service;
+
+import com.techup.travel_app.entity.Trip;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Radius and cluster queries of TripGeoIndex: boxes and circles that cross the
+ * antimeridian, and the same answers whether a query walks the cells of its
+ * box (dense grid) or every occupied cell (sparse grid).
+ */
+class TripGeoIndexTest {
+
+    private final TripGeoIndex index = new TripGeoIndex();
+
+    @Test
+    void radiusSearchWrapsAroundTheAntimeridian() {
+        save(1L, 0.0, 179.99);
+        save(2L, 0.0, -179.99);
+        save(3L, 0.0, 0.0);
+
+        assertThat(ids(index.withinRadius(0, 179.995, 10, 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.withinRadius(0, -179.999, 10, 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.nearest(0, -179.999, 2))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void clustersWrapAroundTheAntimeridian() {
+        save(1L, 10.0, 175.0);
+        save(2L, 10.0, -175.0);
+        save(3L, 10.0, 0.0);
+
+        // Precomputed level, then a deep zoom built from the point grid
+        assertThat(clusterIds(index.clusters(0, 170, 20, -170, 3))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(clusterIds(index.clusters(9.9, 174.9, 10.1, -174.9, 15))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void radiusSearchMatchesABruteForceScan() {
+        Random random = new Random(42);
+        List<Trip> trips = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            trips.add(save(id, 5.6 + random.nextDouble() * 14.8, 97.4 + random.nextDouble() * 8.2));
+        }
+
+        // 300 occupied cells: up to 20 km the circle's box has fewer cells than that and
+        // is walked cell by cell; 300 km and more walk the occupied cells instead
+        double[][] centers = {{13.75, 100.5}, {18.79, 98.98}, {7.88, 98.39}, {5.6, 105.6}};
+        for (double radiusKm : new double[]{1, 5, 20, 300, 2000}) {
+            for (double[] center : centers) {
+                assertThat(ids(index.withinRadius(center[0], center[1], radiusKm, 1000)))
+                        .as("%s km around %s,%s", radiusKm, center[0], center[1])
+                        .containsExactlyElementsOf(bruteForce(trips, center[0], center[1], radiusKm));
+            }
+        }
+    }
+
+    @Test
+    void clustersAreTheSameOnSparseAndDenseGrids() {
+        Random random = new Random(7);
+        for (long id = 1; id <= 20; id++) {
+            save(id, 5.6 + random.nextDouble() * 14.8, 97.4 + random.nextDouble() * 8.2);
+        }
+        // Few occupied cells: the zoom 6 box over Thailand (about 7x12 cells) walks the occupied ones
+        List<TripGeoIndex.Cluster> sparse = sorted(index.clusters(5, 97, 21, 106, 6));
+
+        // Trips far outside the box push the occupied cells past the box size, so the box is walked
+        for (long id = 1000; id < 3000; id++) {
+            save(id, -50 + random.nextDouble() * 100, -170 + random.nextDouble() * 150);
+        }
+        List<TripGeoIndex.Cluster> dense = sorted(index.clusters(5, 97, 21, 106, 6));
+
+        assertThat(dense).isEqualTo(sparse);
+        assertThat(dense.stream().mapToInt(TripGeoIndex.Cluster::count).sum()).isEqualTo(20);
+    }
+
+    private Trip save(Long id, double latitude, double longitude) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setLatitude(latitude);
+        trip.setLongitude(longitude);
+        index.onTripSaved(trip);
+        return trip;
+    }
+
+    // Same order as the index: closest first, newer (higher id) first on ties
+    private static List<Long> bruteForce(List<Trip> trips, double latitude, double longitude, double radiusKm) {
+        return trips.stream()
+                .filter(trip -> TripGeoIndex.haversineKm(latitude, longitude, trip.getLatitude(), trip.getLongitude()) <= radiusKm)
+                .sorted(Comparator.<Trip>comparingDouble(trip -> TripGeoIndex.haversineKm(latitude, longitude, trip.getLatitude(), trip.getLongitude()))
+                        .thenComparing(Trip::getId, Comparator.reverseOrder()))
+                .map(Trip::getId)
+                .toList();
+    }
+
+    private static List<Long> ids(List<TripGeoIndex.Hit> hits) {
+        return hits.stream().map(TripGeoIndex.Hit::tripId).toList();
+    }
+
+    private static List<Long> clusterIds(List<TripGeoIndex.Cluster> clusters) {
+        return clusters.stream().map(TripGeoIndex.Cluster::tripId).toList();
+    }
+
+    private static List<TripGeoIndex.Cluster> sorted(List<TripGeoIndex.Cluster> clusters) {
+        return clusters.stream()
+                .sorted(Comparator.comparingDouble(TripGeoIndex.Cluster::latitude)
+                        .thenComparingDouble(TripGeoIndex.Cluster::longitude))
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.techup.travel_app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Province names in tags: exact names, short forms, names inside longer text,
+ * and the provinces whose names are also everyday words.
+ */
+class ProvinceResolverTest {
+
+    @Test
+    void resolvesExactNamesAndAliases() {
+        assertThat(ProvinceResolver.find("ภูเก็ต")).isEqualTo("ภูเก็ต");
+        assertThat(ProvinceResolver.find("  เชียงใหม่ ")).isEqualTo("เชียงใหม่");
+        assertThat(ProvinceResolver.find("โคราช")).isEqualTo("นครราชสีมา");
+        assertThat(ProvinceResolver.find("กทม")).isEqualTo("กรุงเทพมหานคร");
+        assertThat(ProvinceResolver.find("ญี่ปุ่น")).isEqualTo("ญี่ปุ่น");
+    }
+
+    @Test
+    void findsNamesInsideLongerText() {
+        assertThat(ProvinceResolver.find("ทะเลกระบี่")).isEqualTo("กระบี่");
+        assertThat(ProvinceResolver.find("เที่ยวกรุงเทพฯ")).isEqualTo("กรุงเทพมหานคร");
+        assertThat(ProvinceResolver.find("เกาะเต่า สุราษฎร์ธานี")).isEqualTo("สุราษฎร์ธานี");
+    }
+
+    @Test
+    void ambiguousNamesOnlyCountAsTheWholeTag() {
+        assertThat(ProvinceResolver.find("เลย")).isEqualTo("เลย");
+        assertThat(ProvinceResolver.find("น่าน")).isEqualTo("น่าน");
+
+        // "go right away", "resort", "airspace", "widespread"
+        assertThat(ProvinceResolver.find("ไปเที่ยวเลย")).isNull();
+        assertThat(ProvinceResolver.find("ตากอากาศ")).isNull();
+        assertThat(ProvinceResolver.find("น่านฟ้า")).isNull();
+        assertThat(ProvinceResolver.find("แพร่หลาย")).isNull();
+    }
+
+    @Test
+    void provincePrefixMakesAmbiguousNamesCount() {
+        assertThat(ProvinceResolver.find("จังหวัดเลย")).isEqualTo("เลย");
+        assertThat(ProvinceResolver.find("เที่ยวจังหวัดน่าน")).isEqualTo("น่าน");
+        assertThat(ProvinceResolver.find("ดอยจังหวัดตาก")).isEqualTo("ตาก");
+        assertThat(ProvinceResolver.find("จังหวัดกระบี่")).isEqualTo("กระบี่");
+    }
+
+    @Test
+    void firstTagThatNamesAProvinceWins() {
+        assertThat(ProvinceResolver.find(new String[]{"ทะเล", "ภูเขา", "เชียงใหม่", "กระบี่"})).isEqualTo("เชียงใหม่");
+        assertThat(ProvinceResolver.find(new String[]{"ไปเที่ยวเลย", "จังหวัดน่าน"})).isEqualTo("น่าน");
+        assertThat(ProvinceResolver.find(new String[]{"ทะเล", "ภูเขา"})).isNull();
+        assertThat(ProvinceResolver.find(new String[0])).isNull();
+        assertThat(ProvinceResolver.find((String[]) null)).isNull();
+        assertThat(ProvinceResolver.find((String) null)).isNull();
+    }
+}